@@ -5,10 +5,14 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "products")
+@CompoundIndex(name = "category_name", def = "{ 'productCategory': 1, 'productName': 1 }")
+@CompoundIndex(name = "category_price", def = "{ 'productCategory': 1, 'productPrice': 1 }")
+@CompoundIndex(name = "name_price_id", def = "{ 'productName': 1, 'productPrice': 1, '_id': 1 }")
 public record Product(
     @Id
     Integer productId,
@@ -0,0 +1,188 @@
+package dac.sushanth.ecommerce.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.config.ResponseCacheProperties;
+import dac.sushanth.ecommerce.event.CatalogInvalidatedEvent;
+import dac.sushanth.ecommerce.event.ProductChangeEvent;
+import dac.sushanth.ecommerce.event.ProductsBulkUpdatedEvent;
+import dac.sushanth.ecommerce.snapshot.SnapshotFallback;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Serialized JSON bodies for product and category responses, so cache hits skip Jackson
+ * entirely. Every write replaces the product's entry with a body-less tombstone carrying a fresh
+ * version, and a body loaded while a write was in flight is served once but never stored. Ids
+ * without an entry share the {@code floor} version, which bulk updates, catalog invalidations and
+ * evictions of written entries move forward, so versions stay bounded by the LRU. Bodies expire
+ * after {@code ecommerce.response-cache.ttl} so writes this node never saw are picked up, and a
+ * body answered from a standby snapshot is never stored.
+ */
+@Component
+public class ProductResponseCache {
+    private static final Logger logger = LoggerFactory.getLogger(ProductResponseCache.class);
+
+    private final ResponseCacheProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong clock = new AtomicLong();
+    // Guarded by products, like the map itself
+    private long floor;
+    private final Map<Integer, Entry> products;
+    private final AtomicLong categoriesVersion = new AtomicLong();
+    private volatile Entry categories;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ProductResponseCache(ResponseCacheProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.products = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() <= properties.maxProducts()) {
+                    return false;
+                }
+                evicted(eldest.getValue());
+                return true;
+            }
+        };
+        this.hits = meterRegistry.counter("ecommerce.response-cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("ecommerce.response-cache.requests", "result", "miss");
+    }
+
+    public Optional<byte[]> product(Integer id, Function<Integer, Optional<Product>> loader) {
+        if (!properties.enabled()) {
+            return loader.apply(id).map(this::serialize);
+        }
+        long version;
+        synchronized (products) {
+            Entry cached = products.get(id);
+            if (fresh(cached)) {
+                hits.increment();
+                return Optional.of(cached.body());
+            }
+            version = cached != null ? cached.version() : floor;
+        }
+        misses.increment();
+        SnapshotFallback.consume();
+        Optional<byte[]> body = loader.apply(id).map(this::serialize);
+        if (!SnapshotFallback.consume()) {
+            body.ifPresent(json -> store(id, version, json));
+        }
+        return body;
+    }
+
+    public byte[] categories(Supplier<List<String>> loader) {
+        long version = categoriesVersion.get();
+        Entry cached = categories;
+        if (properties.enabled() && cached != null && cached.version() == version && fresh(cached)) {
+            hits.increment();
+            return cached.body();
+        }
+        misses.increment();
+        SnapshotFallback.consume();
+        byte[] body = serialize(loader.get());
+        if (properties.enabled() && !SnapshotFallback.consume() && categoriesVersion.get() == version) {
+            categories = new Entry(version, body, System.nanoTime());
+        }
+        return body;
+    }
+
+    public void put(Product product) {
+        if (!properties.enabled()) {
+            return;
+        }
+        Integer id = product.productId();
+        long version = version(id);
+        store(id, version, serialize(product));
+    }
+
+    @EventListener
+    public void onProductChange(ProductChangeEvent event) {
+        synchronized (products) {
+            products.put(event.productId(), new Entry(clock.incrementAndGet(), null, 0));
+        }
+        categoriesVersion.incrementAndGet();
+    }
+
+    @EventListener
+    public void onBulkUpdate(ProductsBulkUpdatedEvent event) {
+        clear();
+        categoriesVersion.incrementAndGet();
+        logger.debug("Cleared response cache after bulk update of {} products", event.modified());
+    }
+
+    @EventListener
+    public void onCatalogInvalidated(CatalogInvalidatedEvent event) {
+        clear();
+        categoriesVersion.incrementAndGet();
+        logger.debug("Cleared response cache: {}", event.reason());
+    }
+
+    int size() {
+        synchronized (products) {
+            return products.size();
+        }
+    }
+
+    private long version(Integer id) {
+        synchronized (products) {
+            Entry entry = products.get(id);
+            return entry != null ? entry.version() : floor;
+        }
+    }
+
+    private void store(Integer id, long version, byte[] body) {
+        synchronized (products) {
+            if (version(id) == version) {
+                products.put(id, new Entry(version, body, System.nanoTime()));
+            }
+        }
+    }
+
+    private void clear() {
+        synchronized (products) {
+            floor = clock.incrementAndGet();
+            products.clear();
+        }
+    }
+
+    // Dropping an entry hands its id back to the floor; if the entry carried a write's version the
+    // floor moves on, so a load that started before that write can never match again
+    private void evicted(Entry entry) {
+        if (entry.version() != floor) {
+            floor = clock.incrementAndGet();
+        }
+    }
+
+    private boolean fresh(Entry entry) {
+        return entry != null && entry.body() != null
+                && System.nanoTime() - entry.storedAtNanos() < properties.ttl().toNanos();
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException ex) {
+            logger.error("Failed to serialize response body", ex);
+            throw new IllegalStateException("Failed to serialize response body", ex);
+        }
+    }
+
+    /** A null body is a tombstone left by a write. */
+    private record Entry(long version, byte[] body, long storedAtNanos) {}
+}
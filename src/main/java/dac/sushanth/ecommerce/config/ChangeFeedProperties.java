@@ -0,0 +1,14 @@
+package dac.sushanth.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ecommerce.change-feed")
+public record ChangeFeedProperties(
+    @DefaultValue("256") int subscriberBuffer,
+    @DefaultValue("4096") int replayBuffer,
+    @DefaultValue("30m") Duration emitterTimeout,
+    @DefaultValue("10s") Duration sendTimeout
+) {}
@@ -0,0 +1,24 @@
+package dac.sushanth.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ecommerce.limiter")
+public record ConcurrencyLimitProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("1s") Duration retryAfter,
+    @DefaultValue Budget reads,
+    @DefaultValue Budget searches,
+    @DefaultValue Budget writes,
+    @DefaultValue Budget bulk
+) {
+    public record Budget(
+        @DefaultValue("20") int initialLimit,
+        @DefaultValue("4") int minLimit,
+        @DefaultValue("200") int maxLimit,
+        @DefaultValue("250ms") Duration latencyThreshold,
+        @DefaultValue("0.9") double backoffRatio
+    ) {}
+}
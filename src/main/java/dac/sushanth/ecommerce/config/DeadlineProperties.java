@@ -0,0 +1,17 @@
+package dac.sushanth.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ecommerce.deadline")
+public record DeadlineProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("X-Request-Timeout") String header,
+    @DefaultValue("1s") Duration read,
+    @DefaultValue("3s") Duration search,
+    @DefaultValue("5s") Duration write,
+    @DefaultValue("50ms") Duration minTimeout,
+    @DefaultValue("30s") Duration maxTimeout
+) {}
@@ -0,0 +1,42 @@
+package dac.sushanth.ecommerce.config;
+
+import com.mongodb.ReadPreference;
+import dac.sushanth.ecommerce.deadline.DeadlineExceptionTranslator;
+import dac.sushanth.ecommerce.routing.CausalWriteTracker;
+import dac.sushanth.ecommerce.routing.RoutingMongoTemplate;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoDatabaseFactorySupport;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class MongoConfig {
+
+    @Bean
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory factory, MongoConverter converter,
+                                       ReadRoutingProperties readRoutingProperties) {
+        if (factory instanceof MongoDatabaseFactorySupport<?> support) {
+            support.setExceptionTranslator(new DeadlineExceptionTranslator());
+        }
+        ReadPreference secondary = ReadPreference.valueOf(readRoutingProperties.secondaryReadPreference(),
+                List.of(), readRoutingProperties.maxStaleness().toSeconds(), TimeUnit.SECONDS);
+        return new RoutingMongoTemplate(factory, converter, secondary);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer(WarmupProperties warmupProperties) {
+        return builder -> builder.applyToConnectionPoolSettings(pool ->
+                pool.minSize(Math.max(0, warmupProperties.connectionPoolMinSize())));
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer causalWriteTrackerCustomizer(CausalWriteTracker writeTracker) {
+        return builder -> builder.addCommandListener(writeTracker);
+    }
+}
@@ -0,0 +1,12 @@
+package dac.sushanth.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ecommerce.price-index")
+public record PriceIndexProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("10m") Duration rebuildInterval
+) {}
@@ -0,0 +1,18 @@
+package dac.sushanth.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "ecommerce.query-guard")
+public record QueryGuardProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("FLAG") Mode mode,
+    @DefaultValue("0.01") double sampleRate,
+    @DefaultValue("true") boolean verifyIndexes,
+    @DefaultValue("true") boolean createMissingIndexes
+) {
+    public enum Mode {
+        FLAG,
+        REJECT
+    }
+}
@@ -0,0 +1,15 @@
+package dac.sushanth.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ecommerce.read-routing")
+public record ReadRoutingProperties(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("secondaryPreferred") String secondaryReadPreference,
+    @DefaultValue("90s") Duration maxStaleness,
+    @DefaultValue("true") boolean readYourWrites,
+    @DefaultValue("X-Operation-Time") String operationTimeHeader
+) {}
@@ -0,0 +1,23 @@
+package dac.sushanth.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ecommerce.snapshot")
+public record SnapshotProperties(
+    @DefaultValue("OFF") Mode mode,
+    @DefaultValue("data/catalog.snapshot") Path path,
+    @DefaultValue("5m") Duration interval
+) {
+    public enum Mode {
+        /** No snapshot is written or read. */
+        OFF,
+        /** Snapshots are written periodically and serve reads while MongoDB is unreachable. */
+        STANDBY,
+        /** Read-only replica: every supported read is served from the snapshot, MongoDB is never used. */
+        EDGE
+    }
+}
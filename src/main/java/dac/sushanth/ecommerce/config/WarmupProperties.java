@@ -0,0 +1,18 @@
+package dac.sushanth.ecommerce.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "ecommerce.warmup")
+public record WarmupProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("10") int connectionPoolMinSize,
+    @DefaultValue("100") int hotProducts,
+    @DefaultValue("10") int minRounds,
+    @DefaultValue("200") int maxRounds,
+    @DefaultValue("5") int stableWindow,
+    @DefaultValue("0.2") double stableTolerance,
+    @DefaultValue("60s") Duration maxDuration
+) {}
@@ -0,0 +1,28 @@
+package dac.sushanth.ecommerce.config;
+
+import dac.sushanth.ecommerce.deadline.DeadlineInterceptor;
+import dac.sushanth.ecommerce.routing.CausalConsistencyInterceptor;
+import dac.sushanth.ecommerce.routing.CausalWriteTracker;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    private final DeadlineProperties deadlineProperties;
+    private final ReadRoutingProperties readRoutingProperties;
+    private final CausalWriteTracker writeTracker;
+
+    public WebConfig(DeadlineProperties deadlineProperties, ReadRoutingProperties readRoutingProperties,
+                     CausalWriteTracker writeTracker) {
+        this.deadlineProperties = deadlineProperties;
+        this.readRoutingProperties = readRoutingProperties;
+        this.writeTracker = writeTracker;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new DeadlineInterceptor(deadlineProperties));
+        registry.addInterceptor(new CausalConsistencyInterceptor(readRoutingProperties, writeTracker));
+    }
+}
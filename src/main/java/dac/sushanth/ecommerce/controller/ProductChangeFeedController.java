@@ -0,0 +1,32 @@
+package dac.sushanth.ecommerce.controller;
+
+import dac.sushanth.ecommerce.event.ProductChangeFeed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/v1/products")
+@CrossOrigin(origins = "*")
+public class ProductChangeFeedController {
+    private static final Logger logger = LoggerFactory.getLogger(ProductChangeFeedController.class);
+    private final ProductChangeFeed changeFeed;
+
+    public ProductChangeFeedController(ProductChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changes(
+            @RequestParam(required = false) String category,
+            @RequestParam(name = "id", required = false) Set<Integer> ids,
+            @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        logger.info("Subscribing to product changes - category: {}, ids: {}, lastEventId: {}", category, ids, lastEventId);
+        return changeFeed.subscribe(category, ids, lastEventId);
+    }
+}
@@ -1,7 +1,13 @@
 package dac.sushanth.ecommerce.controller;
 
 import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.cache.ProductResponseCache;
+import dac.sushanth.ecommerce.deadline.WithDeadline;
+import dac.sushanth.ecommerce.dto.BulkUpdateRequest;
+import dac.sushanth.ecommerce.dto.BulkUpdateResult;
+import dac.sushanth.ecommerce.dto.CategoryStats;
 import dac.sushanth.ecommerce.dto.ProductRequest;
+import dac.sushanth.ecommerce.limiter.Workload;
 import dac.sushanth.ecommerce.service.ProductService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
@@ -11,6 +17,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -22,18 +29,22 @@ import java.util.List;
 public class ProductController {
     private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
     private final ProductService service;
+    private final ProductResponseCache responseCache;
 
-    public ProductController(ProductService service) {
+    public ProductController(ProductService service, ProductResponseCache responseCache) {
         this.service = service;
+        this.responseCache = responseCache;
     }
 
     @PostMapping
+    @WithDeadline(Workload.WRITE)
     public ResponseEntity<Product> create(@Valid @RequestBody ProductRequest request) {
         logger.info("Creating new product with name: {}", request.productName());
         return ResponseEntity.ok(service.create(request));
     }
 
     @PutMapping("/{id}")
+    @WithDeadline(Workload.WRITE)
     public ResponseEntity<Product> update(@PathVariable Integer id, @Valid @RequestBody ProductRequest request) {
         logger.info("Updating product with id: {}", id);
         return service.update(id, request)
@@ -42,21 +53,32 @@ public class ProductController {
     }
 
     @DeleteMapping("/{id}")
+    @WithDeadline(Workload.WRITE)
     public ResponseEntity<Void> delete(@PathVariable Integer id) {
         logger.info("Deleting product with id: {}", id);
         service.delete(id);
         return ResponseEntity.noContent().build();
     }
 
+    // No deadline: a bulk update cut short by maxTimeMS would leave the campaign half applied
+    @PostMapping("/bulk-update")
+    public ResponseEntity<BulkUpdateResult> bulkUpdate(@Valid @RequestBody BulkUpdateRequest request) {
+        logger.info("Bulk updating products - filter: {}, operation: {}, dryRun: {}",
+                request.filter(), request.operation(), request.dryRun());
+        return ResponseEntity.ok(service.bulkUpdate(request));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getById(@PathVariable Integer id) {
+    @WithDeadline(Workload.READ)
+    public ResponseEntity<byte[]> getById(@PathVariable Integer id) {
         logger.info("Fetching product with id: {}", id);
-        return service.getById(id)
-                .map(ResponseEntity::ok)
+        return responseCache.product(id, service::getById)
+                .map(json -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping
+    @WithDeadline(Workload.SEARCH)
     public ResponseEntity<Page<Product>> search(
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String category,
@@ -70,8 +92,18 @@ public class ProductController {
     }
 
     @GetMapping("/categories")
-    public ResponseEntity<List<String>> getAllCategories() {
+    @WithDeadline(Workload.READ)
+    public ResponseEntity<byte[]> getAllCategories() {
         logger.info("Fetching all product categories");
-        return ResponseEntity.ok(service.getAllCategories());
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(responseCache.categories(service::getAllCategories));
+    }
+
+    @GetMapping("/categories/statistics")
+    @WithDeadline(Workload.READ)
+    public ResponseEntity<List<CategoryStats>> getCategoryStatistics() {
+        logger.info("Fetching category statistics");
+        return ResponseEntity.ok(service.getCategoryStatistics());
     }
-}
\ No newline at end of file
+}
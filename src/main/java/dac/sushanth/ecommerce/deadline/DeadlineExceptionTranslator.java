@@ -0,0 +1,23 @@
+package dac.sushanth.ecommerce.deadline;
+
+import com.mongodb.MongoExecutionTimeoutException;
+import com.mongodb.MongoOperationTimeoutException;
+import dac.sushanth.ecommerce.exception.DeadlineExceededException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.support.PersistenceExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+
+public class DeadlineExceptionTranslator implements PersistenceExceptionTranslator {
+    private final MongoExceptionTranslator delegate = new MongoExceptionTranslator();
+
+    @Override
+    public DataAccessException translateExceptionIfPossible(RuntimeException ex) {
+        if (ex instanceof DeadlineExceededException deadlineExceeded) {
+            return deadlineExceeded;
+        }
+        if (ex instanceof MongoOperationTimeoutException || ex instanceof MongoExecutionTimeoutException) {
+            return new DeadlineExceededException("Request deadline exceeded while waiting for MongoDB", ex);
+        }
+        return delegate.translateExceptionIfPossible(ex);
+    }
+}
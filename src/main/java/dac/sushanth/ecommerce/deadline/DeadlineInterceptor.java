@@ -0,0 +1,57 @@
+package dac.sushanth.ecommerce.deadline;
+
+import dac.sushanth.ecommerce.config.DeadlineProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+
+public class DeadlineInterceptor implements HandlerInterceptor {
+    private static final Logger logger = LoggerFactory.getLogger(DeadlineInterceptor.class);
+
+    private final DeadlineProperties properties;
+
+    public DeadlineInterceptor(DeadlineProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!properties.enabled() || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        WithDeadline annotation = method.getMethodAnnotation(WithDeadline.class);
+        if (annotation == null) {
+            return true;
+        }
+        Duration timeout = switch (annotation.value()) {
+            case READ -> properties.read();
+            case SEARCH -> properties.search();
+            case WRITE, BULK -> properties.write();
+        };
+        String requested = request.getHeader(properties.header());
+        if (requested != null) {
+            try {
+                timeout = Duration.ofMillis(Long.parseLong(requested.trim()));
+            } catch (NumberFormatException ex) {
+                logger.debug("Ignoring invalid {} header: {}", properties.header(), requested);
+            }
+        }
+        if (timeout.compareTo(properties.minTimeout()) < 0) {
+            timeout = properties.minTimeout();
+        } else if (timeout.compareTo(properties.maxTimeout()) > 0) {
+            timeout = properties.maxTimeout();
+        }
+        RequestDeadline.start(timeout);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestDeadline.clear();
+    }
+}
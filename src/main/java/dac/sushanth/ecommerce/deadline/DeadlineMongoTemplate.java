@@ -0,0 +1,29 @@
+package dac.sushanth.ecommerce.deadline;
+
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the current {@link RequestDeadline} to every collection operation as a client-side
+ * operation timeout, which the driver also sends to the server as {@code maxTimeMS} so the
+ * server abandons work the client has stopped waiting for.
+ */
+public class DeadlineMongoTemplate extends MongoTemplate {
+
+    public DeadlineMongoTemplate(MongoDatabaseFactory mongoDbFactory, MongoConverter mongoConverter) {
+        super(mongoDbFactory, mongoConverter);
+    }
+
+    @Override
+    protected MongoCollection<Document> prepareCollection(MongoCollection<Document> collection) {
+        MongoCollection<Document> prepared = super.prepareCollection(collection);
+        OptionalLong remaining = RequestDeadline.remainingMillis();
+        return remaining.isPresent() ? prepared.withTimeout(remaining.getAsLong(), TimeUnit.MILLISECONDS) : prepared;
+    }
+}
@@ -0,0 +1,36 @@
+package dac.sushanth.ecommerce.deadline;
+
+import dac.sushanth.ecommerce.exception.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Deadline of the request being handled on the current thread, read by the Mongo layer to
+ * bound every operation the request issues.
+ */
+public final class RequestDeadline {
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private RequestDeadline() {}
+
+    public static void start(Duration timeout) {
+        DEADLINE_NANOS.set(System.nanoTime() + timeout.toNanos());
+    }
+
+    public static void clear() {
+        DEADLINE_NANOS.remove();
+    }
+
+    public static OptionalLong remainingMillis() {
+        Long deadline = DEADLINE_NANOS.get();
+        if (deadline == null) {
+            return OptionalLong.empty();
+        }
+        long remaining = Duration.ofNanos(deadline - System.nanoTime()).toMillis();
+        if (remaining <= 0) {
+            throw new DeadlineExceededException("Request deadline exceeded before the operation could start");
+        }
+        return OptionalLong.of(remaining);
+    }
+}
@@ -0,0 +1,14 @@
+package dac.sushanth.ecommerce.deadline;
+
+import dac.sushanth.ecommerce.limiter.Workload;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface WithDeadline {
+    Workload value();
+}
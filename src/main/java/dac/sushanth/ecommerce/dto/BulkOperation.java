@@ -0,0 +1,37 @@
+package dac.sushanth.ecommerce.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+
+public record BulkOperation(
+    @NotNull(message = "Operation type is required")
+    Type type,
+
+    @NotNull(message = "Operation value is required")
+    Double value
+) {
+    public enum Type {
+        PRICE_PERCENT,
+        PRICE_ABSOLUTE,
+        STOCK_SET,
+        STOCK_INCREMENT
+    }
+
+    @AssertTrue(message = "Stock operations require a whole number within the integer range, "
+            + "price changes must be finite and percentage changes must be greater than -100")
+    public boolean isValueValid() {
+        if (type == null || value == null) {
+            return true;
+        }
+        return switch (type) {
+            case PRICE_PERCENT -> Double.isFinite(value) && value > -100;
+            case PRICE_ABSOLUTE -> Double.isFinite(value);
+            case STOCK_SET -> isInt(value) && value >= 0;
+            case STOCK_INCREMENT -> isInt(value);
+        };
+    }
+
+    private static boolean isInt(double value) {
+        return value == Math.rint(value) && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+    }
+}
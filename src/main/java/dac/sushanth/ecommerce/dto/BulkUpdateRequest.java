@@ -0,0 +1,16 @@
+package dac.sushanth.ecommerce.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+public record BulkUpdateRequest(
+    @Valid
+    @NotNull(message = "Filter is required")
+    ProductFilter filter,
+
+    @Valid
+    @NotNull(message = "Operation is required")
+    BulkOperation operation,
+
+    boolean dryRun
+) {}
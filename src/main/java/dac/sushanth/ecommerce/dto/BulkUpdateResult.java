@@ -0,0 +1,7 @@
+package dac.sushanth.ecommerce.dto;
+
+public record BulkUpdateResult(
+    long matched,
+    long modified,
+    boolean dryRun
+) {}
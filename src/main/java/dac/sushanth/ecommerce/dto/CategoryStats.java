@@ -0,0 +1,11 @@
+package dac.sushanth.ecommerce.dto;
+
+public record CategoryStats(
+    String category,
+    long count,
+    double priceSum,
+    double averagePrice,
+    double minPrice,
+    double maxPrice,
+    long totalStock
+) {}
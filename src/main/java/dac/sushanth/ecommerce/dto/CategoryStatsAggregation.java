@@ -0,0 +1,11 @@
+package dac.sushanth.ecommerce.dto;
+
+import org.bson.BsonTimestamp;
+
+import java.util.List;
+
+/** Category statistics read at a single point in time, or with a null {@code atClusterTime} when unknown. */
+public record CategoryStatsAggregation(
+    List<CategoryStats> stats,
+    BsonTimestamp atClusterTime
+) {}
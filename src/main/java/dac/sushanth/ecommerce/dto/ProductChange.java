@@ -0,0 +1,12 @@
+package dac.sushanth.ecommerce.dto;
+
+import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.event.ProductChangeEvent.ChangeType;
+
+public record ProductChange(
+    long eventId,
+    ChangeType type,
+    Integer productId,
+    String productCategory,
+    Product product
+) {}
@@ -0,0 +1,21 @@
+package dac.sushanth.ecommerce.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+
+public record ProductFilter(
+    String category,
+
+    @Min(value = 0, message = "Minimum price must be greater than or equal to 0")
+    Double minPrice,
+
+    @Min(value = 0, message = "Maximum price must be greater than or equal to 0")
+    Double maxPrice,
+
+    String name
+) {
+    @AssertTrue(message = "At least one of category, minPrice, maxPrice or name is required")
+    public boolean isRestricted() {
+        return category != null || minPrice != null || maxPrice != null || name != null;
+    }
+}
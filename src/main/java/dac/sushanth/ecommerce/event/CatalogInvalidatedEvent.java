@@ -0,0 +1,7 @@
+package dac.sushanth.ecommerce.event;
+
+/**
+ * Published when responses built earlier may no longer match what reads return: an edge node
+ * mapped a new catalog snapshot, or a read was answered from the standby snapshot.
+ */
+public record CatalogInvalidatedEvent(String reason) {}
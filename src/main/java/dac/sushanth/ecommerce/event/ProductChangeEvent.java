@@ -0,0 +1,40 @@
+package dac.sushanth.ecommerce.event;
+
+import dac.sushanth.ecommerce.Product;
+import org.bson.BsonTimestamp;
+
+public record ProductChangeEvent(
+    ChangeType type,
+    Integer productId,
+    Product previous,
+    Product current,
+    BsonTimestamp operationTime
+) {
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static ProductChangeEvent created(Product product) {
+        return new ProductChangeEvent(ChangeType.CREATED, product.productId(), null, product, null);
+    }
+
+    public static ProductChangeEvent updated(Product previous, Product current) {
+        return new ProductChangeEvent(ChangeType.UPDATED, current.productId(), previous, current, null);
+    }
+
+    public static ProductChangeEvent deleted(Product previous) {
+        return new ProductChangeEvent(ChangeType.DELETED, previous.productId(), previous, null, null);
+    }
+
+    /** Returns this event stamped with the cluster time of its write, when the server reported one. */
+    public ProductChangeEvent at(BsonTimestamp operationTime) {
+        return new ProductChangeEvent(type, productId, previous, current, operationTime);
+    }
+
+    public boolean touchesCategory(String category) {
+        return (previous != null && category.equals(previous.productCategory()))
+            || (current != null && category.equals(current.productCategory()));
+    }
+}
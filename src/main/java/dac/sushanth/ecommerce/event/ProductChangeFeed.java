@@ -0,0 +1,274 @@
+package dac.sushanth.ecommerce.event;
+
+import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.config.ChangeFeedProperties;
+import dac.sushanth.ecommerce.dto.ProductChange;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans product write events out to SSE subscribers. Writers only ever enqueue into bounded
+ * per-subscriber buffers; a subscriber whose buffer overflows is sent a RESET instead of the
+ * dropped events. Each drain runs on its own dispatch thread, and a subscriber whose send has been
+ * blocked for longer than the send timeout is disconnected by {@link #expireStalledSends()}; it can
+ * resume from its last event id while that id is still in the replay buffer. Event ids are prefixed with
+ * a token unique to this process, so an id issued before a restart or by another node triggers a
+ * RESET instead of a silent gap. Bulk updates cannot be expressed per product, so matching
+ * subscribers are told to RESET as well.
+ */
+@Component
+public class ProductChangeFeed {
+    private static final Logger logger = LoggerFactory.getLogger(ProductChangeFeed.class);
+    static final String RESET_EVENT = "RESET";
+    private static final char ID_SEPARATOR = '-';
+
+    private final ChangeFeedProperties properties;
+    private final Executor dispatcher;
+    private final ExecutorService ownedDispatcher;
+    private final Set<Subscription> subscriptions = new CopyOnWriteArraySet<>();
+    private final Deque<Buffered> replay = new ArrayDeque<>();
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36)
+            + Integer.toString(ThreadLocalRandom.current().nextInt(Integer.MAX_VALUE), 36);
+    private long lastEventId;
+    private long lastResetEventId;
+
+    @Autowired
+    public ProductChangeFeed(ChangeFeedProperties properties) {
+        this(properties, Executors.newCachedThreadPool());
+    }
+
+    ProductChangeFeed(ChangeFeedProperties properties, Executor dispatcher) {
+        this.properties = properties;
+        this.dispatcher = dispatcher;
+        this.ownedDispatcher = dispatcher instanceof ExecutorService service ? service : null;
+    }
+
+    public SseEmitter subscribe(String category, Set<Integer> productIds, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(properties.emitterTimeout().toMillis());
+        Subscription subscription = register(new Filter(category, productIds), lastEventId, emitter);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(ex -> subscriptions.remove(subscription));
+        return emitter;
+    }
+
+    Subscription register(Filter filter, String lastEventId, SseEmitter emitter) {
+        Subscription subscription = new Subscription(filter, emitter, properties.subscriberBuffer());
+        synchronized (replay) {
+            if (lastEventId != null) {
+                Long resumeFrom = sequence(lastEventId);
+                Buffered oldest = replay.peekFirst();
+                if (resumeFrom == null || resumeFrom > this.lastEventId || resumeFrom < lastResetEventId
+                        || oldest != null && oldest.change().eventId() > resumeFrom + 1) {
+                    requestReset(subscription);
+                } else {
+                    for (Buffered buffered : replay) {
+                        if (buffered.change().eventId() > resumeFrom && filter.matches(buffered.event())
+                                && !subscription.queue.offer(buffered.change())) {
+                            requestReset(subscription);
+                            break;
+                        }
+                    }
+                }
+            }
+            subscriptions.add(subscription);
+        }
+        logger.debug("Change feed subscriber registered - category: {}, ids: {}, lastEventId: {}",
+                filter.category(), filter.productIds(), lastEventId);
+        schedule(subscription);
+        return subscription;
+    }
+
+    @EventListener
+    public void onProductChange(ProductChangeEvent event) {
+        Product product = event.current() != null ? event.current() : event.previous();
+        synchronized (replay) {
+            ProductChange change = new ProductChange(
+                ++lastEventId,
+                event.type(),
+                event.productId(),
+                product.productCategory(),
+                event.current()
+            );
+            replay.addLast(new Buffered(change, event));
+            while (replay.size() > properties.replayBuffer()) {
+                replay.removeFirst();
+            }
+            for (Subscription subscription : subscriptions) {
+                if (subscription.filter.matches(event)) {
+                    enqueue(subscription, change);
+                }
+            }
+        }
+    }
+
+    @EventListener
+    public void onBulkUpdate(ProductsBulkUpdatedEvent event) {
+        String category = event.filter().category();
+        synchronized (replay) {
+            lastResetEventId = ++lastEventId;
+            replay.clear();
+            for (Subscription subscription : subscriptions) {
+                if (category == null || subscription.filter.category() == null
+                        || category.equals(subscription.filter.category())) {
+                    requestReset(subscription);
+                    schedule(subscription);
+                }
+            }
+        }
+    }
+
+    String eventId(long sequence) {
+        return epoch + ID_SEPARATOR + sequence;
+    }
+
+    /** Returns the sequence of an id issued by this process, or null for a foreign or malformed id. */
+    private Long sequence(String eventId) {
+        int separator = eventId.lastIndexOf(ID_SEPARATOR);
+        if (separator < 0 || !epoch.equals(eventId.substring(0, separator))) {
+            return null;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    // Callers hold the replay lock; the RESET carries the current id so a later resume starts from it
+    private void requestReset(Subscription subscription) {
+        subscription.queue.clear();
+        subscription.resetEventId = lastEventId;
+        subscription.resetRequired = true;
+    }
+
+    int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    private void enqueue(Subscription subscription, ProductChange change) {
+        if (subscription.queue.offer(change)) {
+            schedule(subscription);
+            return;
+        }
+        logger.debug("Change feed subscriber buffer full after {} events, requesting reset", subscription.queue.size());
+        requestReset(subscription);
+        schedule(subscription);
+    }
+
+    /** Disconnects subscribers whose current send has been blocked for longer than the send timeout. */
+    @Scheduled(fixedDelayString = "${ecommerce.change-feed.send-timeout:10s}")
+    void expireStalledSends() {
+        long now = System.nanoTime();
+        long timeout = properties.sendTimeout().toNanos();
+        for (Subscription subscription : subscriptions) {
+            long started = subscription.sendStartedNanos;
+            if (started != 0 && now - started > timeout && subscriptions.remove(subscription)) {
+                logger.warn("Dropping change feed subscriber blocked in send for over {} ms",
+                        properties.sendTimeout().toMillis());
+                subscription.emitter.completeWithError(new TimeoutException("Change feed send timed out"));
+            }
+        }
+    }
+
+    private void schedule(Subscription subscription) {
+        if ((subscription.resetRequired || !subscription.queue.isEmpty())
+                && subscription.draining.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscription));
+        }
+    }
+
+    private void drain(Subscription subscription) {
+        try {
+            if (subscription.resetRequired) {
+                subscription.resetRequired = false;
+                send(subscription, SseEmitter.event()
+                        .id(eventId(subscription.resetEventId))
+                        .name(RESET_EVENT)
+                        .data(""));
+            }
+            ProductChange change;
+            while ((change = subscription.queue.poll()) != null) {
+                send(subscription, SseEmitter.event()
+                        .id(eventId(change.eventId()))
+                        .name(change.type().name())
+                        .data(change, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException ex) {
+            logger.debug("Change feed subscriber disconnected: {}", ex.getMessage());
+            subscriptions.remove(subscription);
+            subscription.emitter.completeWithError(ex);
+            return;
+        } finally {
+            subscription.draining.set(false);
+        }
+        if (subscriptions.contains(subscription)) {
+            schedule(subscription);
+        }
+    }
+
+    private void send(Subscription subscription, SseEmitter.SseEventBuilder event) throws IOException {
+        subscription.sendStartedNanos = System.nanoTime();
+        try {
+            subscription.emitter.send(event);
+        } finally {
+            subscription.sendStartedNanos = 0;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+        subscriptions.clear();
+        if (ownedDispatcher != null) {
+            ownedDispatcher.shutdownNow();
+        }
+    }
+
+    record Filter(String category, Set<Integer> productIds) {
+        boolean matches(ProductChangeEvent event) {
+            return (category == null || event.touchesCategory(category))
+                && (productIds == null || productIds.isEmpty() || productIds.contains(event.productId()));
+        }
+    }
+
+    private record Buffered(ProductChange change, ProductChangeEvent event) {}
+
+    static final class Subscription {
+        final Filter filter;
+        final SseEmitter emitter;
+        final BlockingQueue<ProductChange> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean resetRequired;
+        volatile long resetEventId;
+        // System.nanoTime() when the in-flight send started, 0 while idle
+        volatile long sendStartedNanos;
+
+        Subscription(Filter filter, SseEmitter emitter, int capacity) {
+            this.filter = filter;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package dac.sushanth.ecommerce.event;
+
+import dac.sushanth.ecommerce.dto.BulkOperation;
+import dac.sushanth.ecommerce.dto.ProductFilter;
+
+public record ProductsBulkUpdatedEvent(
+    ProductFilter filter,
+    BulkOperation operation,
+    long modified
+) {}
@@ -0,0 +1,13 @@
+package dac.sushanth.ecommerce.exception;
+
+import org.springframework.dao.QueryTimeoutException;
+
+public class DeadlineExceededException extends QueryTimeoutException {
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
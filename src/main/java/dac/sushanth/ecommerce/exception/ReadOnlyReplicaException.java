@@ -0,0 +1,7 @@
+package dac.sushanth.ecommerce.exception;
+
+public class ReadOnlyReplicaException extends RuntimeException {
+    public ReadOnlyReplicaException(String message) {
+        super(message);
+    }
+}
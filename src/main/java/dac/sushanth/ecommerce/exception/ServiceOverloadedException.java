@@ -0,0 +1,16 @@
+package dac.sushanth.ecommerce.exception;
+
+import java.time.Duration;
+
+public class ServiceOverloadedException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String workload, Duration retryAfter) {
+        super(String.format("Too many concurrent %s requests, please retry later", workload));
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
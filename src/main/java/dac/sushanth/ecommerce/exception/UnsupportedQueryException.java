@@ -0,0 +1,7 @@
+package dac.sushanth.ecommerce.exception;
+
+public class UnsupportedQueryException extends RuntimeException {
+    public UnsupportedQueryException(String message) {
+        super(message);
+    }
+}
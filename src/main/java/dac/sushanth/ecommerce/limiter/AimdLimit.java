@@ -0,0 +1,59 @@
+package dac.sushanth.ecommerce.limiter;
+
+import dac.sushanth.ecommerce.config.ConcurrencyLimitProperties.Budget;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Additive-increase/multiplicative-decrease concurrency limit. The limit grows by one while
+ * requests complete under the latency threshold with the budget at least half used, and is
+ * cut by the backoff ratio whenever a request is slow or fails against the database.
+ */
+class AimdLimit {
+    private final Budget budget;
+    private final long thresholdNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    AimdLimit(Budget budget) {
+        this.budget = budget;
+        this.thresholdNanos = budget.latencyThreshold().toNanos();
+        this.limit = Math.max(budget.minLimit(), Math.min(budget.initialLimit(), budget.maxLimit()));
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long latencyNanos, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (dropped || latencyNanos > thresholdNanos) {
+                limit = Math.max(budget.minLimit(), (int) (limit * budget.backoffRatio()));
+            } else if (current * 2 >= limit) {
+                limit = Math.min(budget.maxLimit(), limit + 1);
+            }
+        }
+    }
+
+    /** Frees the slot without adjusting the limit, for calls whose outcome carries no load signal. */
+    void releaseIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,90 @@
+package dac.sushanth.ecommerce.limiter;
+
+import dac.sushanth.ecommerce.config.ConcurrencyLimitProperties;
+import dac.sushanth.ecommerce.exception.DeadlineExceededException;
+import dac.sushanth.ecommerce.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@Component
+public class ConcurrencyLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimiter.class);
+
+    private final ConcurrencyLimitProperties properties;
+    private final Map<Workload, AimdLimit> limits = new EnumMap<>(Workload.class);
+    private final Map<Workload, Counter> rejections = new EnumMap<>(Workload.class);
+
+    public ConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        limits.put(Workload.READ, new AimdLimit(properties.reads()));
+        limits.put(Workload.SEARCH, new AimdLimit(properties.searches()));
+        limits.put(Workload.WRITE, new AimdLimit(properties.writes()));
+        // Bulk updates get their own budget so their long runs do not shrink the WRITE limit
+        limits.put(Workload.BULK, new AimdLimit(properties.bulk()));
+
+        limits.forEach((workload, limit) -> {
+            String tag = workload.name().toLowerCase();
+            Gauge.builder("ecommerce.limiter.limit", limit, AimdLimit::getLimit)
+                    .tag("workload", tag)
+                    .register(meterRegistry);
+            Gauge.builder("ecommerce.limiter.in-flight", limit, AimdLimit::getInFlight)
+                    .tag("workload", tag)
+                    .register(meterRegistry);
+            rejections.put(workload, Counter.builder("ecommerce.limiter.rejections")
+                    .tag("workload", tag)
+                    .register(meterRegistry));
+        });
+    }
+
+    public <T> T execute(Workload workload, Supplier<T> call) {
+        if (!properties.enabled()) {
+            return call.get();
+        }
+        AimdLimit limit = limits.get(workload);
+        if (!limit.tryAcquire()) {
+            rejections.get(workload).increment();
+            logger.warn("Rejecting {} request, concurrency limit {} reached", workload, limit.getLimit());
+            throw new ServiceOverloadedException(workload.name().toLowerCase(), properties.retryAfter());
+        }
+        long start = System.nanoTime();
+        boolean dropped = false;
+        boolean ignored = false;
+        try {
+            return call.get();
+        } catch (DeadlineExceededException ex) {
+            // The client chose the deadline, so running out of it says nothing about database capacity
+            ignored = true;
+            throw ex;
+        } catch (DataAccessResourceFailureException | QueryTimeoutException ex) {
+            dropped = true;
+            throw ex;
+        } finally {
+            if (ignored) {
+                limit.releaseIgnored();
+            } else {
+                limit.release(System.nanoTime() - start, dropped);
+            }
+        }
+    }
+
+    public void run(Workload workload, Runnable call) {
+        execute(workload, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    int getLimit(Workload workload) {
+        return limits.get(workload).getLimit();
+    }
+}
@@ -0,0 +1,8 @@
+package dac.sushanth.ecommerce.limiter;
+
+public enum Workload {
+    READ,
+    SEARCH,
+    WRITE,
+    BULK
+}
@@ -0,0 +1,165 @@
+package dac.sushanth.ecommerce.priceindex;
+
+import java.util.Arrays;
+
+/**
+ * Immutable product ids ordered by price, held in parallel primitive arrays. Range counts and id
+ * pages are binary searches; writes copy the arrays once, which at catalog sizes of a few hundred
+ * thousand entries is cheaper than the MongoDB round trips it replaces and lets searches read
+ * without locking. Products with equal prices are ordered by id, the same order as a MongoDB sort on
+ * productPrice then _id, so pages are stable across rebuilds and nodes.
+ */
+public final class PriceIndex {
+    static final PriceIndex EMPTY = new PriceIndex(new double[0], new int[0]);
+
+    private final double[] prices;
+    private final int[] ids;
+
+    PriceIndex(double[] prices, int[] ids) {
+        this.prices = prices;
+        this.ids = ids;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int count(double min, double max) {
+        return Math.max(0, upperBound(max) - lowerBound(min));
+    }
+
+    /** Ids of the products on one page of a price range, in ascending or descending price order. */
+    public int[] ids(double min, double max, long offset, int limit, boolean descending) {
+        int from = lowerBound(min);
+        int to = upperBound(max);
+        int total = Math.max(0, to - from);
+        if (offset >= total) {
+            return new int[0];
+        }
+        int length = (int) Math.min(limit, total - offset);
+        if (!descending) {
+            int start = from + (int) offset;
+            return Arrays.copyOfRange(ids, start, start + length);
+        }
+        int[] page = new int[length];
+        int start = to - 1 - (int) offset;
+        for (int i = 0; i < length; i++) {
+            page[i] = ids[start - i];
+        }
+        return page;
+    }
+
+    PriceIndex with(int id, double price) {
+        if (indexOf(id, price) >= 0) {
+            return this;
+        }
+        int at = insertionPoint(price, id);
+        double[] newPrices = new double[prices.length + 1];
+        int[] newIds = new int[ids.length + 1];
+        System.arraycopy(prices, 0, newPrices, 0, at);
+        System.arraycopy(ids, 0, newIds, 0, at);
+        newPrices[at] = price;
+        newIds[at] = id;
+        System.arraycopy(prices, at, newPrices, at + 1, prices.length - at);
+        System.arraycopy(ids, at, newIds, at + 1, ids.length - at);
+        return new PriceIndex(newPrices, newIds);
+    }
+
+    PriceIndex without(int id, double price) {
+        int at = indexOf(id, price);
+        if (at < 0) {
+            return this;
+        }
+        double[] newPrices = new double[prices.length - 1];
+        int[] newIds = new int[ids.length - 1];
+        System.arraycopy(prices, 0, newPrices, 0, at);
+        System.arraycopy(ids, 0, newIds, 0, at);
+        System.arraycopy(prices, at + 1, newPrices, at, prices.length - at - 1);
+        System.arraycopy(ids, at + 1, newIds, at, ids.length - at - 1);
+        return new PriceIndex(newPrices, newIds);
+    }
+
+    /** Re-prices {@code id} in one copy, shifting only the entries between its old and new position. */
+    PriceIndex move(int id, double oldPrice, double newPrice) {
+        int from = indexOf(id, oldPrice);
+        if (from < 0) {
+            return with(id, newPrice);
+        }
+        if (oldPrice == newPrice) {
+            return this;
+        }
+        int to = insertionPoint(newPrice, id);
+        if (to > from) {
+            // Position once the entry is lifted out of the arrays
+            to--;
+        }
+        int low = Math.min(from, to);
+        int high = Math.max(from, to);
+        double[] newPrices = new double[prices.length];
+        int[] newIds = new int[ids.length];
+        System.arraycopy(prices, 0, newPrices, 0, low);
+        System.arraycopy(ids, 0, newIds, 0, low);
+        if (from < to) {
+            System.arraycopy(prices, from + 1, newPrices, from, to - from);
+            System.arraycopy(ids, from + 1, newIds, from, to - from);
+        } else {
+            System.arraycopy(prices, to, newPrices, to + 1, from - to);
+            System.arraycopy(ids, to, newIds, to + 1, from - to);
+        }
+        newPrices[to] = newPrice;
+        newIds[to] = id;
+        System.arraycopy(prices, high + 1, newPrices, high + 1, prices.length - high - 1);
+        System.arraycopy(ids, high + 1, newIds, high + 1, ids.length - high - 1);
+        return new PriceIndex(newPrices, newIds);
+    }
+
+    private int indexOf(int id, double price) {
+        int at = insertionPoint(price, id) - 1;
+        return at >= 0 && prices[at] == price && ids[at] == id ? at : -1;
+    }
+
+    /** First position whose entry orders after {@code price}, and {@code id} among equal prices. */
+    private int insertionPoint(double price, int id) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid] < price || (prices[mid] == price && ids[mid] <= id)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** First position whose price is at least {@code price}. */
+    private int lowerBound(double price) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid] < price) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** First position whose price is greater than {@code price}. */
+    private int upperBound(double price) {
+        int low = 0;
+        int high = prices.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices[mid] <= price) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
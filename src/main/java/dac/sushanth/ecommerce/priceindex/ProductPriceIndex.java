@@ -0,0 +1,236 @@
+package dac.sushanth.ecommerce.priceindex;
+
+import com.mongodb.client.MongoCursor;
+import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.config.PriceIndexProperties;
+import dac.sushanth.ecommerce.dto.BulkOperation;
+import dac.sushanth.ecommerce.event.ProductChangeEvent;
+import dac.sushanth.ecommerce.event.ProductsBulkUpdatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps a {@link PriceIndex} of every product in sync with local writes. It is built from the
+ * productPrice index at startup and rebuilt periodically to pick up writes made by other nodes.
+ * Events arriving during a rebuild are replayed onto the freshly loaded index, collapsed to each
+ * product's final state since the load may already contain some of them; a bulk price change
+ * drops the index until the next rebuild completes, and searches go to MongoDB meanwhile.
+ */
+@Component
+@Order(6)
+public class ProductPriceIndex implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(ProductPriceIndex.class);
+
+    private final PriceIndexProperties properties;
+    private final MongoTemplate mongoTemplate;
+    private final Counter missingIds;
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor();
+    private final Object lock = new Object();
+    private final Object rebuildLock = new Object();
+    private volatile PriceIndex index;
+    private List<ProductChangeEvent> pending;
+    private long generation;
+
+    public ProductPriceIndex(PriceIndexProperties properties, MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.missingIds = meterRegistry.counter("ecommerce.price-index.missing-ids");
+        Gauge.builder("ecommerce.price-index.size", this, priceIndex -> priceIndex.index == null ? 0 : priceIndex.index.size())
+                .register(meterRegistry);
+        Gauge.builder("ecommerce.price-index.ready", this, priceIndex -> priceIndex.index == null ? 0 : 1)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            logger.warn("Could not build the price index, price searches use MongoDB until it is rebuilt: {}", ex.getMessage());
+        }
+    }
+
+    public Optional<PriceIndex> current() {
+        return Optional.ofNullable(index);
+    }
+
+    /**
+     * Records ids the index put on a page that MongoDB no longer has in the requested price range,
+     * typically products deleted or re-priced through another node since the last rebuild. Such
+     * pages come back short.
+     */
+    public void recordMissing(int count) {
+        missingIds.increment(count);
+        logger.debug("Price index returned {} ids missing from the price range in MongoDB, page served short until the next rebuild", count);
+    }
+
+    @Scheduled(initialDelayString = "${ecommerce.price-index.rebuild-interval:10m}",
+            fixedDelayString = "${ecommerce.price-index.rebuild-interval:10m}")
+    public void rebuild() {
+        if (!properties.enabled()) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            long startGeneration;
+            synchronized (lock) {
+                startGeneration = generation;
+                pending = new ArrayList<>();
+            }
+            try {
+                PriceIndex loaded = load();
+                synchronized (lock) {
+                    if (generation != startGeneration) {
+                        // A bulk price change ran during the load and queued another rebuild
+                        return;
+                    }
+                    loaded = replay(loaded, pending);
+                    index = loaded;
+                }
+                logger.debug("Built price index of {} products", loaded.size());
+            } finally {
+                synchronized (lock) {
+                    pending = null;
+                }
+            }
+        }
+    }
+
+    @EventListener
+    public void onProductChange(ProductChangeEvent event) {
+        synchronized (lock) {
+            if (pending != null) {
+                pending.add(event);
+            }
+            if (index != null) {
+                index = apply(index, event);
+            }
+        }
+    }
+
+    @EventListener
+    public void onBulkUpdate(ProductsBulkUpdatedEvent event) {
+        BulkOperation.Type type = event.operation().type();
+        if (!properties.enabled() || type == BulkOperation.Type.STOCK_SET || type == BulkOperation.Type.STOCK_INCREMENT) {
+            return;
+        }
+        synchronized (lock) {
+            generation++;
+            index = null;
+        }
+        rebuilder.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException ex) {
+                logger.warn("Could not rebuild the price index after a bulk update: {}", ex.getMessage());
+            }
+        });
+    }
+
+    private PriceIndex load() {
+        double[] prices = new double[1024];
+        int[] ids = new int[1024];
+        int size = 0;
+        // Walking the productPrice index yields entries already in price order
+        try (MongoCursor<Document> cursor = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class))
+                .find()
+                .projection(new Document("productPrice", 1))
+                .sort(new Document("productPrice", 1))
+                .iterator()) {
+            while (cursor.hasNext()) {
+                Document document = cursor.next();
+                if (!(document.get("productPrice") instanceof Number price)) {
+                    continue;
+                }
+                if (size == ids.length) {
+                    prices = Arrays.copyOf(prices, size * 2);
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                prices[size] = price.doubleValue();
+                ids[size] = document.getInteger("_id");
+                size++;
+            }
+        }
+        // The productPrice index leaves equal prices in no particular order, PriceIndex orders them by id
+        for (int start = 0, end; start < size; start = end) {
+            end = start + 1;
+            while (end < size && prices[end] == prices[start]) {
+                end++;
+            }
+            Arrays.sort(ids, start, end);
+        }
+        return new PriceIndex(Arrays.copyOf(prices, size), Arrays.copyOf(ids, size));
+    }
+
+    /**
+     * Replays writes that raced a load. The load may already reflect any prefix of an id's writes,
+     * so each id is removed at every price its writes mention and then set to its final state.
+     */
+    static PriceIndex replay(PriceIndex index, List<ProductChangeEvent> events) {
+        Map<Integer, Set<Double>> prices = new LinkedHashMap<>();
+        Map<Integer, Product> latest = new HashMap<>();
+        for (ProductChangeEvent event : events) {
+            Set<Double> seen = prices.computeIfAbsent(event.productId(), id -> new HashSet<>());
+            if (event.previous() != null) {
+                seen.add(event.previous().productPrice());
+            }
+            if (event.current() != null) {
+                seen.add(event.current().productPrice());
+            }
+            latest.put(event.productId(), event.current());
+        }
+        PriceIndex replayed = index;
+        for (Map.Entry<Integer, Set<Double>> entry : prices.entrySet()) {
+            for (double price : entry.getValue()) {
+                replayed = replayed.without(entry.getKey(), price);
+            }
+            Product current = latest.get(entry.getKey());
+            if (current != null) {
+                replayed = replayed.with(current.productId(), current.productPrice());
+            }
+        }
+        return replayed;
+    }
+
+    private static PriceIndex apply(PriceIndex index, ProductChangeEvent event) {
+        if (event.previous() != null && event.current() != null) {
+            return index.move(event.productId(), event.previous().productPrice(), event.current().productPrice());
+        }
+        PriceIndex updated = index;
+        if (event.previous() != null) {
+            updated = updated.without(event.previous().productId(), event.previous().productPrice());
+        }
+        if (event.current() != null) {
+            updated = updated.with(event.current().productId(), event.current().productPrice());
+        }
+        return updated;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuilder.shutdownNow();
+    }
+}
@@ -0,0 +1,80 @@
+package dac.sushanth.ecommerce.queryplan;
+
+import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.config.QueryGuardProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver.IndexDefinitionHolder;
+import org.springframework.data.util.TypeInformation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Verifies at startup that every index {@link QueryPlanPolicy} relies on is declared on
+ * {@link Product} and exists in MongoDB, creating declared indexes that are missing when allowed.
+ */
+@Component
+@Order(0)
+public class QueryIndexVerifier implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(QueryIndexVerifier.class);
+
+    private final QueryGuardProperties properties;
+    private final MongoTemplate mongoTemplate;
+
+    public QueryIndexVerifier(QueryGuardProperties properties, MongoTemplate mongoTemplate) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.enabled() || !properties.verifyIndexes()) {
+            return;
+        }
+        List<IndexDefinitionHolder> declared = new ArrayList<>();
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(TypeInformation.of(Product.class))
+                .forEach(declared::add);
+        IndexOperations indexOps = mongoTemplate.indexOps(Product.class);
+        List<List<String>> existing = indexOps.getIndexInfo().stream()
+                .map(QueryIndexVerifier::keys)
+                .toList();
+
+        for (List<String> required : QueryPlanPolicy.requiredIndexes()) {
+            if (required.equals(List.of("_id")) || existing.stream().anyMatch(keys -> startsWith(keys, required))) {
+                continue;
+            }
+            IndexDefinitionHolder definition = declared.stream()
+                    .filter(holder -> startsWith(new ArrayList<>(holder.getIndexKeys().keySet()), required))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException(
+                            "Query plan policy requires an index on " + required + " that is not declared on Product"));
+            if (!properties.createMissingIndexes()) {
+                throw new IllegalStateException("Required index on " + required + " is missing from the products collection");
+            }
+            logger.warn("Creating missing index {} on products", definition.getIndexKeys().toJson());
+            indexOps.ensureIndex(definition);
+            existing = new ArrayList<>(existing);
+            existing.add(new ArrayList<>(definition.getIndexKeys().keySet()));
+        }
+        logger.info("Verified {} indexes required by the query plan policy", QueryPlanPolicy.requiredIndexes().size());
+    }
+
+    private static List<String> keys(IndexInfo info) {
+        return info.getIndexFields().stream().map(IndexField::getKey).toList();
+    }
+
+    private static boolean startsWith(List<String> keys, List<String> prefix) {
+        return keys.size() >= prefix.size() && keys.subList(0, prefix.size()).equals(prefix);
+    }
+}
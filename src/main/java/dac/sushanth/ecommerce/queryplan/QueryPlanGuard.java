@@ -0,0 +1,212 @@
+package dac.sushanth.ecommerce.queryplan;
+
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.MongoCollection;
+import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.config.QueryGuardProperties;
+import dac.sushanth.ecommerce.deadline.RequestDeadline;
+import dac.sushanth.ecommerce.exception.ServiceOverloadedException;
+import dac.sushanth.ecommerce.exception.UnsupportedQueryException;
+import dac.sushanth.ecommerce.limiter.ConcurrencyLimiter;
+import dac.sushanth.ecommerce.limiter.Workload;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps product searches on index-backed plans. Sort fields are checked against
+ * {@link QueryPlanPolicy}, and a sample of queries is explained in the background to catch
+ * COLLSCAN or blocking SORT stages. In REJECT mode a shape is explained synchronously the first
+ * time it is seen, under the READ limit and the request deadline, and shapes with a bad plan are
+ * refused from then on. A first explain that cannot be queued is retried on the next request.
+ */
+@Component
+public class QueryPlanGuard {
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanGuard.class);
+    private static final Set<String> FLAGGED_STAGES = Set.of("COLLSCAN", "SORT");
+
+    private final QueryGuardProperties properties;
+    private final MongoTemplate mongoTemplate;
+    private final ConcurrencyLimiter limiter;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> explainedShapes = ConcurrentHashMap.newKeySet();
+    private final Set<String> rejectedShapes = ConcurrentHashMap.newKeySet();
+    private final Executor explainer;
+    private final ExecutorService ownedExplainer;
+
+    @Autowired
+    public QueryPlanGuard(QueryGuardProperties properties, MongoTemplate mongoTemplate, ConcurrencyLimiter limiter,
+                          MeterRegistry meterRegistry) {
+        this(properties, mongoTemplate, limiter, meterRegistry, new ThreadPoolExecutor(
+                1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16), new ThreadPoolExecutor.AbortPolicy()));
+    }
+
+    QueryPlanGuard(QueryGuardProperties properties, MongoTemplate mongoTemplate, ConcurrencyLimiter limiter,
+                   MeterRegistry meterRegistry, Executor explainer) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.limiter = limiter;
+        this.meterRegistry = meterRegistry;
+        this.explainer = explainer;
+        this.ownedExplainer = explainer instanceof ExecutorService service ? service : null;
+    }
+
+    public void check(String name, String category, Double minPrice, Double maxPrice, Pageable pageable) {
+        if (!properties.enabled()) {
+            return;
+        }
+        QueryShape shape = QueryShape.of(name, category, minPrice, maxPrice);
+        String sortField = sortField(shape, pageable.getSort());
+        if (shape == QueryShape.ALL && sortField == null) {
+            // An unfiltered, unsorted page is a limited natural-order scan by design
+            return;
+        }
+        String shapeKey = sortField == null ? shape.name() : shape.name() + ":" + sortField;
+
+        if (rejectedShapes.contains(shapeKey)) {
+            reject(shapeKey, "Query shape " + shapeKey + " is not served by an index");
+        }
+        boolean firstSeen = explainedShapes.add(shapeKey);
+        // Explain the query as it will run, not as the client asked for it
+        Pageable executed = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                QueryPlanPolicy.executedSort(shape, pageable.getSort()));
+        if (firstSeen && properties.mode() == QueryGuardProperties.Mode.REJECT) {
+            Document filter = filter(shape, name, category, minPrice, maxPrice);
+            boolean violates;
+            try {
+                violates = limiter.execute(Workload.READ, () -> explain(shapeKey, filter, executed));
+            } catch (ServiceOverloadedException ex) {
+                explainedShapes.remove(shapeKey);
+                throw ex;
+            }
+            if (violates) {
+                reject(shapeKey, "Query shape " + shapeKey + " is not served by an index");
+            }
+        } else if (firstSeen || ThreadLocalRandom.current().nextDouble() < properties.sampleRate()) {
+            Document filter = filter(shape, name, category, minPrice, maxPrice);
+            try {
+                explainer.execute(() -> explain(shapeKey, filter, executed));
+            } catch (RejectedExecutionException ex) {
+                if (firstSeen) {
+                    explainedShapes.remove(shapeKey);
+                }
+                logger.debug("Explain queue full, skipped query shape {}", shapeKey);
+            }
+        }
+    }
+
+    private String sortField(QueryShape shape, Sort sort) {
+        List<String> fields = new ArrayList<>();
+        sort.forEach(order -> fields.add(order.getProperty()));
+        if (fields.size() > 1) {
+            reject(shape.name(), "Sorting by more than one field is not supported");
+        }
+        String sortField = fields.isEmpty() ? null : fields.get(0);
+        Optional<List<String>> index = QueryPlanPolicy.requiredIndex(shape, sortField);
+        if (index.isEmpty()) {
+            reject(shape.name(), String.format("Sorting by '%s' is not supported for this search, allowed fields: %s",
+                    sortField, QueryPlanPolicy.sortableFields(shape)));
+        }
+        return sortField;
+    }
+
+    private boolean explain(String shapeKey, Document filter, Pageable pageable) {
+        try {
+            MongoCollection<Document> collection = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Product.class));
+            OptionalLong remaining = RequestDeadline.remainingMillis();
+            if (remaining.isPresent()) {
+                collection = collection.withTimeout(remaining.getAsLong(), TimeUnit.MILLISECONDS);
+            }
+            Document explained = collection
+                    .find(filter)
+                    .sort(sortDocument(pageable.getSort()))
+                    .skip((int) Math.min(pageable.getOffset(), Integer.MAX_VALUE))
+                    .limit(pageable.getPageSize())
+                    .explain(ExplainVerbosity.QUERY_PLANNER);
+            meterRegistry.counter("ecommerce.query-plan.explains", "shape", shapeKey).increment();
+
+            Document queryPlanner = explained.get("queryPlanner", Document.class);
+            Set<String> stages = new HashSet<>();
+            collectStages(queryPlanner == null ? null : queryPlanner.get("winningPlan"), stages);
+            stages.retainAll(FLAGGED_STAGES);
+            if (stages.isEmpty()) {
+                return false;
+            }
+            stages.forEach(stage -> meterRegistry.counter("ecommerce.query-plan.violations",
+                    "shape", shapeKey, "stage", stage).increment());
+            logger.warn("Query shape {} uses unindexed plan stages {}", shapeKey, stages);
+            if (properties.mode() == QueryGuardProperties.Mode.REJECT) {
+                rejectedShapes.add(shapeKey);
+            }
+            return true;
+        } catch (RuntimeException ex) {
+            logger.debug("Could not explain query shape {}: {}", shapeKey, ex.getMessage());
+            explainedShapes.remove(shapeKey);
+            return false;
+        }
+    }
+
+    private void collectStages(Object plan, Set<String> stages) {
+        if (plan instanceof Document document) {
+            if (document.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            document.values().forEach(value -> collectStages(value, stages));
+        } else if (plan instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages));
+        }
+    }
+
+    private void reject(String shapeKey, String message) {
+        meterRegistry.counter("ecommerce.query-plan.rejections", "shape", shapeKey).increment();
+        throw new UnsupportedQueryException(message);
+    }
+
+    private static Document filter(QueryShape shape, String name, String category, Double minPrice, Double maxPrice) {
+        return switch (shape) {
+            case NAME -> new Document("productName", new Document("$regex", Pattern.quote(name)).append("$options", "i"));
+            case CATEGORY -> new Document("productCategory", category);
+            case PRICE_RANGE -> new Document("productPrice", new Document("$gte", minPrice).append("$lte", maxPrice));
+            case ALL -> new Document();
+        };
+    }
+
+    private static Document sortDocument(Sort sort) {
+        Document document = new Document();
+        sort.forEach(order -> document.append(
+                "productId".equals(order.getProperty()) ? "_id" : order.getProperty(),
+                order.isAscending() ? 1 : -1));
+        return document;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (ownedExplainer != null) {
+            ownedExplainer.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package dac.sushanth.ecommerce.queryplan;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Allow-list of product query shapes and sort fields, each tied to the index key prefix that
+ * serves it without a collection scan or blocking sort. Sorting by {@code null} means unsorted.
+ */
+public final class QueryPlanPolicy {
+    private static final List<String> ID = List.of("_id");
+    private static final List<String> PRICE = List.of("productPrice");
+    private static final List<String> NAME_PRICE = List.of("productName", "productPrice", "_id");
+    private static final List<String> CATEGORY_NAME = List.of("productCategory", "productName");
+    private static final List<String> CATEGORY_PRICE = List.of("productCategory", "productPrice");
+
+    private static final Map<QueryShape, Map<String, List<String>>> INDEX_FOR_SORT = new EnumMap<>(QueryShape.class);
+
+    static {
+        INDEX_FOR_SORT.put(QueryShape.ALL, Map.of(
+            "productId", ID,
+            "productName", NAME_PRICE,
+            "productPrice", PRICE
+        ));
+        INDEX_FOR_SORT.put(QueryShape.NAME, Map.of(
+            "productName", NAME_PRICE,
+            "productPrice", PRICE
+        ));
+        INDEX_FOR_SORT.put(QueryShape.CATEGORY, Map.of(
+            "productName", CATEGORY_NAME,
+            "productPrice", CATEGORY_PRICE
+        ));
+        INDEX_FOR_SORT.put(QueryShape.PRICE_RANGE, Map.of(
+            "productName", NAME_PRICE,
+            "productPrice", PRICE
+        ));
+    }
+
+    private QueryPlanPolicy() {}
+
+    public static Optional<List<String>> requiredIndex(QueryShape shape, String sortField) {
+        if (sortField == null) {
+            return Optional.of(switch (shape) {
+                case ALL -> ID;
+                case NAME -> NAME_PRICE;
+                case CATEGORY -> CATEGORY_NAME;
+                case PRICE_RANGE -> PRICE;
+            });
+        }
+        return Optional.ofNullable(INDEX_FOR_SORT.get(shape).get(sortField));
+    }
+
+    /**
+     * Returns the sort a query of {@code shape} actually runs with. Price range pages sorted by name
+     * are tie-broken by price then id, the rest of the name_price_id index, so pages never overlap.
+     */
+    public static Sort executedSort(QueryShape shape, Sort sort) {
+        Sort.Order order = sort.stream().findFirst().orElse(null);
+        if (shape == QueryShape.PRICE_RANGE && order != null && "productName".equals(order.getProperty())) {
+            return Sort.by(order.getDirection(), "productName", "productPrice", "productId");
+        }
+        return sort;
+    }
+
+    public static Set<String> sortableFields(QueryShape shape) {
+        return INDEX_FOR_SORT.get(shape).keySet();
+    }
+
+    public static Set<List<String>> requiredIndexes() {
+        Set<List<String>> indexes = new LinkedHashSet<>();
+        INDEX_FOR_SORT.values().forEach(sorts -> indexes.addAll(sorts.values()));
+        return indexes;
+    }
+}
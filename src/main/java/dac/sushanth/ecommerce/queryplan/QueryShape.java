@@ -0,0 +1,21 @@
+package dac.sushanth.ecommerce.queryplan;
+
+public enum QueryShape {
+    ALL,
+    NAME,
+    CATEGORY,
+    PRICE_RANGE;
+
+    public static QueryShape of(String name, String category, Double minPrice, Double maxPrice) {
+        if (name != null) {
+            return NAME;
+        }
+        if (category != null) {
+            return CATEGORY;
+        }
+        if (minPrice != null && maxPrice != null) {
+            return PRICE_RANGE;
+        }
+        return ALL;
+    }
+}
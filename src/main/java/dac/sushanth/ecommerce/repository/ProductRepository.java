@@ -1,6 +1,7 @@
 package dac.sushanth.ecommerce.repository;
 
 import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.dto.CategoryStats;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
@@ -11,7 +12,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends MongoRepository<Product, Integer> {
+public interface ProductRepository extends MongoRepository<Product, Integer>, ProductRepositoryCustom {
     Page<Product> findByProductNameContainingIgnoreCase(String productName, Pageable pageable);
     
     Page<Product> findByProductCategory(String productCategory, Pageable pageable);
@@ -19,6 +20,9 @@ public interface ProductRepository extends MongoRepository<Product, Integer> {
     @Query("{ 'productPrice' : { $gte: ?0, $lte: ?1 } }")
     Page<Product> findByProductPriceBetween(double min, double max, Pageable pageable);
 
+    @Query("{ 'productPrice' : { $gte: ?0, $lte: ?1 } }")
+    List<Product> findPriceRangeContent(double min, double max, Pageable pageable);
+
     @Aggregation(pipeline = {
         "{ $group: { _id: '$productCategory' } }",
         "{ $project: { _id: 0, category: '$_id' } }",
@@ -26,6 +30,19 @@ public interface ProductRepository extends MongoRepository<Product, Integer> {
     })
     List<String> findAllCategories();
 
+    @Aggregation(pipeline = {
+        "{ $group: { _id: '$productCategory', count: { $sum: 1 }, priceSum: { $sum: '$productPrice' }, averagePrice: { $avg: '$productPrice' }, minPrice: { $min: '$productPrice' }, maxPrice: { $max: '$productPrice' }, totalStock: { $sum: '$productStock' } } }",
+        "{ $project: { _id: 0, category: '$_id', count: 1, priceSum: 1, averagePrice: 1, minPrice: 1, maxPrice: 1, totalStock: 1 } }"
+    })
+    List<CategoryStats> aggregateCategoryStats();
+
+    @Aggregation(pipeline = {
+        "{ $match: { productCategory: ?0 } }",
+        "{ $group: { _id: '$productCategory', count: { $sum: 1 }, priceSum: { $sum: '$productPrice' }, averagePrice: { $avg: '$productPrice' }, minPrice: { $min: '$productPrice' }, maxPrice: { $max: '$productPrice' }, totalStock: { $sum: '$productStock' } } }",
+        "{ $project: { _id: 0, category: '$_id', count: 1, priceSum: 1, averagePrice: 1, minPrice: 1, maxPrice: 1, totalStock: 1 } }"
+    })
+    List<CategoryStats> aggregateCategoryStats(String productCategory);
+
     List<Product> findByProductNameContainingIgnoreCase(String productName);
     List<Product> findByProductCategory(String productCategory);
     List<Product> findByProductPriceBetween(double min, double max);
@@ -0,0 +1,19 @@
+package dac.sushanth.ecommerce.repository;
+
+import dac.sushanth.ecommerce.dto.BulkOperation;
+import dac.sushanth.ecommerce.dto.BulkUpdateResult;
+import dac.sushanth.ecommerce.dto.CategoryStatsAggregation;
+import dac.sushanth.ecommerce.dto.ProductFilter;
+
+public interface ProductRepositoryCustom {
+    long countMatching(ProductFilter filter);
+
+    BulkUpdateResult updateMatching(ProductFilter filter, BulkOperation operation);
+
+    /**
+     * Aggregates statistics for {@code category}, or every category when null, as a snapshot read so
+     * the result reflects exactly the writes up to its {@code atClusterTime}. Deployments without
+     * snapshot reads fall back to a plain aggregation with no cluster time.
+     */
+    CategoryStatsAggregation aggregateCategoryStatsAtSnapshot(String category);
+}
@@ -0,0 +1,120 @@
+package dac.sushanth.ecommerce.repository;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.result.UpdateResult;
+import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.dto.BulkOperation;
+import dac.sushanth.ecommerce.dto.BulkUpdateResult;
+import dac.sushanth.ecommerce.dto.CategoryStats;
+import dac.sushanth.ecommerce.dto.CategoryStatsAggregation;
+import dac.sushanth.ecommerce.dto.ProductFilter;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+    private static final Logger logger = LoggerFactory.getLogger(ProductRepositoryCustomImpl.class);
+    private static final ClientSessionOptions SNAPSHOT = ClientSessionOptions.builder().snapshot(true).build();
+
+    private final MongoTemplate mongoTemplate;
+
+    public ProductRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public long countMatching(ProductFilter filter) {
+        return mongoTemplate.count(query(filter), Product.class);
+    }
+
+    @Override
+    public BulkUpdateResult updateMatching(ProductFilter filter, BulkOperation operation) {
+        UpdateResult result = mongoTemplate.updateMulti(query(filter), update(operation), Product.class);
+        return new BulkUpdateResult(result.getMatchedCount(), result.getModifiedCount(), false);
+    }
+
+    @Override
+    public CategoryStatsAggregation aggregateCategoryStatsAtSnapshot(String category) {
+        TypedAggregation<Product> aggregation = categoryStats(category);
+        try (ClientSession session = mongoTemplate.getMongoDatabaseFactory().getSession(SNAPSHOT)) {
+            List<CategoryStats> stats = mongoTemplate.withSession(session)
+                    .aggregate(aggregation, CategoryStats.class)
+                    .getMappedResults();
+            return new CategoryStatsAggregation(stats, session.getSnapshotTimestamp());
+        } catch (DataAccessException ex) {
+            // Standalone servers reject snapshot reads
+            logger.debug("Snapshot aggregation unavailable, aggregating without a read point: {}", ex.getMessage());
+            return new CategoryStatsAggregation(
+                    mongoTemplate.aggregate(aggregation, CategoryStats.class).getMappedResults(), null);
+        }
+    }
+
+    static TypedAggregation<Product> categoryStats(String category) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        if (category != null) {
+            stages.add(Aggregation.match(Criteria.where("productCategory").is(category)));
+        }
+        stages.add(Aggregation.group("productCategory")
+                .count().as("count")
+                .sum("productPrice").as("priceSum")
+                .avg("productPrice").as("averagePrice")
+                .min("productPrice").as("minPrice")
+                .max("productPrice").as("maxPrice")
+                .sum("productStock").as("totalStock"));
+        stages.add(Aggregation.project("count", "priceSum", "averagePrice", "minPrice", "maxPrice", "totalStock")
+                .and("category").previousOperation());
+        return Aggregation.newAggregation(Product.class, stages);
+    }
+
+    static Query query(ProductFilter filter) {
+        Criteria criteria = new Criteria();
+        if (filter.category() != null) {
+            criteria.and("productCategory").is(filter.category());
+        }
+        if (filter.minPrice() != null || filter.maxPrice() != null) {
+            Criteria price = criteria.and("productPrice");
+            if (filter.minPrice() != null) {
+                price.gte(filter.minPrice());
+            }
+            if (filter.maxPrice() != null) {
+                price.lte(filter.maxPrice());
+            }
+        }
+        if (filter.name() != null) {
+            criteria.and("productName").regex(Pattern.quote(filter.name()), "i");
+        }
+        return new Query(criteria);
+    }
+
+    static AggregationUpdate update(BulkOperation operation) {
+        double value = operation.value();
+        Document set = switch (operation.type()) {
+            case PRICE_PERCENT -> new Document("productPrice", nonNegativePrice(
+                    new Document("$multiply", List.of("$productPrice", 1 + value / 100))));
+            case PRICE_ABSOLUTE -> new Document("productPrice", nonNegativePrice(
+                    new Document("$add", List.of("$productPrice", value))));
+            case STOCK_SET -> new Document("productStock", (int) value);
+            // MongoDB widens an overflowing int sum to a long, which productStock cannot hold
+            case STOCK_INCREMENT -> new Document("productStock", new Document("$min", List.of(Integer.MAX_VALUE,
+                    new Document("$max", List.of(0, new Document("$add", List.of("$productStock", (int) value)))))));
+        };
+        return AggregationUpdate.from(List.of(Aggregation.stage(new Document("$set", set))));
+    }
+
+    private static Document nonNegativePrice(Document expression) {
+        return new Document("$round", List.of(new Document("$max", List.of(0, expression)), 2));
+    }
+}
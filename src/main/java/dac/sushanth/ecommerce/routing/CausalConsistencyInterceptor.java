@@ -0,0 +1,49 @@
+package dac.sushanth.ecommerce.routing;
+
+import dac.sushanth.ecommerce.config.ReadRoutingProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.bson.BsonTimestamp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Reads the client's operation time token, so its secondary reads wait for the writes it has
+ * already seen acknowledged, and scopes write tracking to the request.
+ */
+public class CausalConsistencyInterceptor implements HandlerInterceptor {
+    private static final Logger logger = LoggerFactory.getLogger(CausalConsistencyInterceptor.class);
+
+    private final ReadRoutingProperties properties;
+    private final CausalWriteTracker writeTracker;
+
+    public CausalConsistencyInterceptor(ReadRoutingProperties properties, CausalWriteTracker writeTracker) {
+        this.properties = properties;
+        this.writeTracker = writeTracker;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        writeTracker.clear();
+        if (!properties.enabled() || !properties.readYourWrites()) {
+            return true;
+        }
+        String token = request.getHeader(properties.operationTimeHeader());
+        if (token != null) {
+            BsonTimestamp readAfter = OperationTimeToken.parse(token);
+            if (readAfter == null) {
+                logger.debug("Ignoring invalid {} header: {}", properties.operationTimeHeader(), token);
+            } else {
+                ReadRouting.setReadAfter(readAfter);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadRouting.clearReadAfter();
+        writeTracker.clear();
+    }
+}
@@ -0,0 +1,44 @@
+package dac.sushanth.ecommerce.routing;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonTimestamp;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Remembers the operation time of the latest write acknowledged on the current thread, so the
+ * request that made it can hand it to its client as a read-your-writes token. The synchronous
+ * driver reports command events on the thread that issued the command.
+ */
+@Component
+public class CausalWriteTracker implements CommandListener {
+    private static final Set<String> WRITE_COMMANDS = Set.of("insert", "update", "delete", "findAndModify");
+    private static final ThreadLocal<BsonTimestamp> LAST_OPERATION_TIME = new ThreadLocal<>();
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        if (!WRITE_COMMANDS.contains(event.getCommandName())) {
+            return;
+        }
+        if (event.getResponse().isTimestamp("operationTime")) {
+            advance(event.getResponse().getTimestamp("operationTime"));
+        }
+    }
+
+    void advance(BsonTimestamp operationTime) {
+        BsonTimestamp last = LAST_OPERATION_TIME.get();
+        if (last == null || operationTime.compareTo(last) > 0) {
+            LAST_OPERATION_TIME.set(operationTime);
+        }
+    }
+
+    public BsonTimestamp getLastOperationTime() {
+        return LAST_OPERATION_TIME.get();
+    }
+
+    public void clear() {
+        LAST_OPERATION_TIME.remove();
+    }
+}
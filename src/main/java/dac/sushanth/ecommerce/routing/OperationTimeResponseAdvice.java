@@ -0,0 +1,42 @@
+package dac.sushanth.ecommerce.routing;
+
+import dac.sushanth.ecommerce.config.ReadRoutingProperties;
+import org.bson.BsonTimestamp;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Returns the operation time of the request's writes as a token the client sends back on later
+ * reads. Added before the body is written, while headers can still be set.
+ */
+@ControllerAdvice
+public class OperationTimeResponseAdvice implements ResponseBodyAdvice<Object> {
+    private final ReadRoutingProperties properties;
+    private final CausalWriteTracker writeTracker;
+
+    public OperationTimeResponseAdvice(ReadRoutingProperties properties, CausalWriteTracker writeTracker) {
+        this.properties = properties;
+        this.writeTracker = writeTracker;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return properties.enabled() && properties.readYourWrites();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        BsonTimestamp operationTime = writeTracker.getLastOperationTime();
+        if (operationTime != null) {
+            response.getHeaders().set(properties.operationTimeHeader(), OperationTimeToken.format(operationTime));
+        }
+        return body;
+    }
+}
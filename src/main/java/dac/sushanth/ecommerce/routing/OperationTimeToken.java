@@ -0,0 +1,30 @@
+package dac.sushanth.ecommerce.routing;
+
+import org.bson.BsonTimestamp;
+
+/**
+ * Text form of a write's operation time, {@code <seconds>.<increment>}, as returned to clients
+ * after a write and sent back on later reads.
+ */
+public final class OperationTimeToken {
+
+    private OperationTimeToken() {}
+
+    public static String format(BsonTimestamp operationTime) {
+        return Integer.toUnsignedString(operationTime.getTime()) + "." + Integer.toUnsignedString(operationTime.getInc());
+    }
+
+    /** Returns null when {@code token} is not a well-formed operation time. */
+    public static BsonTimestamp parse(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        try {
+            return new BsonTimestamp(Integer.parseUnsignedInt(token.substring(0, dot).trim()),
+                    Integer.parseUnsignedInt(token.substring(dot + 1).trim()));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package dac.sushanth.ecommerce.routing;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+import dac.sushanth.ecommerce.config.ReadRoutingProperties;
+import org.bson.BsonTimestamp;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs reads against secondaries. When the client sent the operation time of an earlier write,
+ * the read runs in a causally consistent session that waits until the secondary has it.
+ */
+@Component
+public class ReadRouter {
+    private static final ClientSessionOptions CAUSAL = ClientSessionOptions.builder().causallyConsistent(true).build();
+
+    private final ReadRoutingProperties properties;
+    private final MongoDatabaseFactory databaseFactory;
+
+    public ReadRouter(ReadRoutingProperties properties, MongoDatabaseFactory databaseFactory) {
+        this.properties = properties;
+        this.databaseFactory = databaseFactory;
+    }
+
+    public <T> T secondary(Supplier<T> call) {
+        if (!properties.enabled()) {
+            return call.get();
+        }
+        BsonTimestamp readAfter = properties.readYourWrites() ? ReadRouting.readAfter() : null;
+        if (readAfter == null) {
+            ReadRouting.set(new ReadRouting.Route(true, null));
+            try {
+                return call.get();
+            } finally {
+                ReadRouting.clear();
+            }
+        }
+        try (ClientSession session = databaseFactory.getSession(CAUSAL)) {
+            session.advanceOperationTime(readAfter);
+            ReadRouting.set(new ReadRouting.Route(true, session));
+            try {
+                return call.get();
+            } finally {
+                ReadRouting.clear();
+            }
+        }
+    }
+}
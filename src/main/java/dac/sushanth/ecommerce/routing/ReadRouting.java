@@ -0,0 +1,48 @@
+package dac.sushanth.ecommerce.routing;
+
+import com.mongodb.client.ClientSession;
+import org.bson.BsonTimestamp;
+
+/**
+ * Read route of the repository call running on the current thread, read by
+ * {@link RoutingMongoTemplate}. Unset means primary. Also holds the operation time the current
+ * request's secondary reads must observe, taken from the client's token.
+ */
+public final class ReadRouting {
+    private static final ThreadLocal<Route> ROUTE = new ThreadLocal<>();
+    private static final ThreadLocal<BsonTimestamp> READ_AFTER = new ThreadLocal<>();
+
+    private ReadRouting() {}
+
+    record Route(boolean secondary, ClientSession session) {}
+
+    static void set(Route route) {
+        ROUTE.set(route);
+    }
+
+    static void clear() {
+        ROUTE.remove();
+    }
+
+    public static boolean isSecondary() {
+        Route route = ROUTE.get();
+        return route != null && route.secondary();
+    }
+
+    public static ClientSession session() {
+        Route route = ROUTE.get();
+        return route == null ? null : route.session();
+    }
+
+    static void setReadAfter(BsonTimestamp operationTime) {
+        READ_AFTER.set(operationTime);
+    }
+
+    static BsonTimestamp readAfter() {
+        return READ_AFTER.get();
+    }
+
+    static void clearReadAfter() {
+        READ_AFTER.remove();
+    }
+}
@@ -0,0 +1,36 @@
+package dac.sushanth.ecommerce.routing;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import dac.sushanth.ecommerce.deadline.DeadlineMongoTemplate;
+import org.bson.Document;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+/**
+ * Sends reads marked by {@link ReadRouter} to secondaries, bound to the causally consistent
+ * session it opened when read-your-writes is on. Everything else keeps the primary.
+ */
+public class RoutingMongoTemplate extends DeadlineMongoTemplate {
+    private final ReadPreference secondaryReadPreference;
+
+    public RoutingMongoTemplate(MongoDatabaseFactory mongoDbFactory, MongoConverter mongoConverter,
+                                ReadPreference secondaryReadPreference) {
+        super(mongoDbFactory, mongoConverter);
+        this.secondaryReadPreference = secondaryReadPreference;
+    }
+
+    @Override
+    protected MongoDatabase doGetDatabase() {
+        ClientSession session = ReadRouting.session();
+        return session == null ? super.doGetDatabase() : getMongoDatabaseFactory().withSession(session).getMongoDatabase();
+    }
+
+    @Override
+    protected MongoCollection<Document> prepareCollection(MongoCollection<Document> collection) {
+        MongoCollection<Document> prepared = super.prepareCollection(collection);
+        return ReadRouting.isSecondary() ? prepared.withReadPreference(secondaryReadPreference) : prepared;
+    }
+}
@@ -1,30 +1,76 @@
 package dac.sushanth.ecommerce.service;
 
 import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.dto.BulkUpdateRequest;
+import dac.sushanth.ecommerce.dto.BulkUpdateResult;
+import dac.sushanth.ecommerce.dto.CategoryStats;
 import dac.sushanth.ecommerce.dto.ProductRequest;
+import dac.sushanth.ecommerce.event.ProductChangeEvent;
+import dac.sushanth.ecommerce.event.ProductsBulkUpdatedEvent;
 import dac.sushanth.ecommerce.exception.ResourceNotFoundException;
+import dac.sushanth.ecommerce.limiter.ConcurrencyLimiter;
+import dac.sushanth.ecommerce.limiter.Workload;
+import dac.sushanth.ecommerce.priceindex.PriceIndex;
+import dac.sushanth.ecommerce.priceindex.ProductPriceIndex;
+import dac.sushanth.ecommerce.queryplan.QueryPlanGuard;
+import dac.sushanth.ecommerce.queryplan.QueryPlanPolicy;
+import dac.sushanth.ecommerce.queryplan.QueryShape;
+import dac.sushanth.ecommerce.routing.CausalWriteTracker;
+import dac.sushanth.ecommerce.routing.ReadRouter;
+import dac.sushanth.ecommerce.snapshot.CatalogSnapshot;
+import dac.sushanth.ecommerce.snapshot.CatalogSnapshots;
 import dac.sushanth.ecommerce.repository.ProductRepository;
+import dac.sushanth.ecommerce.stats.CategoryStatistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ProductService {
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
     private final ProductRepository repository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConcurrencyLimiter limiter;
+    private final QueryPlanGuard queryPlanGuard;
+    private final ReadRouter readRouter;
+    private final CategoryStatistics categoryStatistics;
+    private final CatalogSnapshots snapshots;
+    private final ProductPriceIndex priceIndex;
+    private final CausalWriteTracker writeTracker;
 
-    public ProductService(ProductRepository repository) {
+    public ProductService(ProductRepository repository, ApplicationEventPublisher eventPublisher,
+                          ConcurrencyLimiter limiter, QueryPlanGuard queryPlanGuard, ReadRouter readRouter,
+                          CategoryStatistics categoryStatistics, CatalogSnapshots snapshots,
+                          ProductPriceIndex priceIndex, CausalWriteTracker writeTracker) {
         this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        this.limiter = limiter;
+        this.queryPlanGuard = queryPlanGuard;
+        this.readRouter = readRouter;
+        this.categoryStatistics = categoryStatistics;
+        this.snapshots = snapshots;
+        this.priceIndex = priceIndex;
+        this.writeTracker = writeTracker;
     }
 
     public Product create(ProductRequest request) {
+        snapshots.requireWritable();
         Product product = new Product(
             generateId(),
             request.productName(),
@@ -35,11 +81,14 @@ public class ProductService {
             request.productImageUrl()
         );
         logger.debug("Creating new product: {}", product);
-        return repository.save(product);
+        Product saved = limiter.execute(Workload.WRITE, () -> repository.save(product));
+        eventPublisher.publishEvent(ProductChangeEvent.created(saved).at(writeTracker.getLastOperationTime()));
+        return saved;
     }
 
     public Optional<Product> update(Integer id, ProductRequest request) {
-        return repository.findById(id)
+        snapshots.requireWritable();
+        return limiter.execute(Workload.WRITE, () -> repository.findById(id))
             .map(existing -> {
                 Product updatedProduct = new Product(
                     id,
@@ -51,47 +100,126 @@ public class ProductService {
                     request.productImageUrl()
                 );
                 logger.debug("Updating product: {}", updatedProduct);
-                return repository.save(updatedProduct);
+                Product saved = limiter.execute(Workload.WRITE, () -> repository.save(updatedProduct));
+                eventPublisher.publishEvent(ProductChangeEvent.updated(existing, saved)
+                        .at(writeTracker.getLastOperationTime()));
+                return saved;
             });
     }
 
     public void delete(Integer id) {
-        if (!repository.existsById(id)) {
-            throw new ResourceNotFoundException("Product", "id", id);
-        }
+        snapshots.requireWritable();
+        Product existing = limiter.execute(Workload.WRITE, () -> repository.findById(id))
+            .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
         logger.debug("Deleting product with id: {}", id);
-        repository.deleteById(id);
+        limiter.run(Workload.WRITE, () -> repository.deleteById(id));
+        eventPublisher.publishEvent(ProductChangeEvent.deleted(existing).at(writeTracker.getLastOperationTime()));
+    }
+
+    public BulkUpdateResult bulkUpdate(BulkUpdateRequest request) {
+        snapshots.requireWritable();
+        logger.debug("Bulk update - filter: {}, operation: {}, dryRun: {}",
+                request.filter(), request.operation(), request.dryRun());
+        if (request.dryRun()) {
+            long matched = limiter.execute(Workload.BULK, () -> repository.countMatching(request.filter()));
+            return new BulkUpdateResult(matched, 0, true);
+        }
+        BulkUpdateResult result = limiter.execute(Workload.BULK,
+                () -> repository.updateMatching(request.filter(), request.operation()));
+        logger.info("Bulk {} matched {} and modified {} products",
+                request.operation().type(), result.matched(), result.modified());
+        if (result.modified() > 0) {
+            eventPublisher.publishEvent(new ProductsBulkUpdatedEvent(request.filter(), request.operation(), result.modified()));
+        }
+        return result;
     }
 
     public Optional<Product> getById(Integer id) {
         logger.debug("Fetching product with id: {}", id);
-        return repository.findById(id);
+        return snapshots.read(() -> limiter.execute(Workload.READ, () -> repository.findById(id)),
+                snapshot -> snapshot.findById(id));
     }
 
     public List<Product> getAll() {
         logger.debug("Fetching all products");
-        return repository.findAll();
+        return snapshots.read(() -> limiter.execute(Workload.SEARCH, () -> repository.findAll()),
+                CatalogSnapshots.unsupported("Listing all products"));
     }
 
     public Page<Product> search(String name, String category, Double minPrice, Double maxPrice, Pageable pageable) {
         logger.debug("Searching products with filters - name: {}, category: {}, price range: {} to {}, page: {}, size: {}, sort: {}",
                 name, category, minPrice, maxPrice, pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+        queryPlanGuard.check(name, category, minPrice, maxPrice, pageable);
 
         if (name != null) {
-            return repository.findByProductNameContainingIgnoreCase(name, pageable);
+            return snapshots.read(() -> readRouter.secondary(() -> limiter.execute(Workload.SEARCH,
+                    () -> repository.findByProductNameContainingIgnoreCase(name, pageable))),
+                    CatalogSnapshots.unsupported("Searching by name"));
         }
         if (category != null) {
-            return repository.findByProductCategory(category, pageable);
+            return snapshots.read(() -> readRouter.secondary(() -> limiter.execute(Workload.SEARCH,
+                    () -> repository.findByProductCategory(category, pageable))),
+                    CatalogSnapshots.unsupported("Searching by category"));
         }
         if (minPrice != null && maxPrice != null) {
-            return repository.findByProductPriceBetween(minPrice, maxPrice, pageable);
+            return snapshots.read(() -> searchByPrice(minPrice, maxPrice, pageable),
+                    snapshot -> snapshot.findByPriceBetween(minPrice, maxPrice, pageable));
         }
-        return repository.findAll(pageable);
+        return snapshots.read(() -> readRouter.secondary(() -> limiter.execute(Workload.SEARCH,
+                () -> repository.findAll(pageable))),
+                CatalogSnapshots.unsupported("Listing all products"));
     }
 
     public List<String> getAllCategories() {
         logger.debug("Fetching all product categories");
-        return repository.findAllCategories();
+        return snapshots.read(() -> readRouter.secondary(() -> limiter.execute(Workload.READ,
+                () -> repository.findAllCategories())), CatalogSnapshot::categories);
+    }
+
+    public List<CategoryStats> getCategoryStatistics() {
+        logger.debug("Fetching category statistics");
+        return snapshots.read(() -> limiter.execute(Workload.READ, categoryStatistics::snapshot),
+                CatalogSnapshot::categoryStats);
+    }
+
+    /**
+     * Counts come from the in-process price index instead of a count query. When the page is
+     * ordered by price the index also picks the ids, so MongoDB only fetches that page by _id.
+     */
+    private Page<Product> searchByPrice(double minPrice, double maxPrice, Pageable pageable) {
+        // The same sort the query plan guard explained, with tie-breakers so pages never overlap
+        Pageable executed = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                QueryPlanPolicy.executedSort(QueryShape.PRICE_RANGE, pageable.getSort()));
+        Optional<PriceIndex> index = priceIndex.current();
+        if (index.isEmpty()) {
+            return readRouter.secondary(() -> limiter.execute(Workload.SEARCH,
+                    () -> repository.findByProductPriceBetween(minPrice, maxPrice, executed)));
+        }
+        int total = index.get().count(minPrice, maxPrice);
+        if (pageable.getOffset() >= total) {
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+        Sort.Order order = pageable.getSort().stream().findFirst().orElse(null);
+        if (order != null && !"productPrice".equals(order.getProperty())) {
+            List<Product> content = readRouter.secondary(() -> limiter.execute(Workload.SEARCH,
+                    () -> repository.findPriceRangeContent(minPrice, maxPrice, executed)));
+            return new PageImpl<>(content, pageable, total);
+        }
+        int[] ids = index.get().ids(minPrice, maxPrice, pageable.getOffset(), pageable.getPageSize(),
+                order != null && order.isDescending());
+        Map<Integer, Product> found = readRouter.secondary(() -> limiter.execute(Workload.SEARCH,
+                () -> repository.findAllById(Arrays.stream(ids).boxed().toList()))).stream()
+                .collect(Collectors.toMap(Product::productId, Function.identity()));
+        // The index may lag a write, so drop ids that were deleted or re-priced out of the range
+        List<Product> content = Arrays.stream(ids)
+                .mapToObj(found::get)
+                .filter(Objects::nonNull)
+                .filter(product -> product.productPrice() >= minPrice && product.productPrice() <= maxPrice)
+                .toList();
+        if (content.size() < ids.length) {
+            priceIndex.recordMissing(ids.length - content.size());
+        }
+        return new PageImpl<>(content, pageable, total);
     }
 
     private Integer generateId() {
@@ -0,0 +1,360 @@
+package dac.sushanth.ecommerce.snapshot;
+
+import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.dto.CategoryStats;
+import dac.sushanth.ecommerce.exception.UnsupportedQueryException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only, memory-mapped copy of the products collection. Layout, all big-endian:
+ * <pre>
+ * header      magic, version, createdAt, product count, category count,
+ *             category table offset, string heap offset
+ * columns     n x int id (ascending), n x double price, n x int stock, n x int category,
+ *             n x int name, n x int description, n x int image url, n x int row by price
+ * categories  category count x int string offset, sorted by name
+ * strings     length-prefixed UTF-8, offsets are relative to the heap start
+ * </pre>
+ * Lookups by id and price are binary searches over the mapped columns; strings are only
+ * decoded for products that are returned.
+ */
+public final class CatalogSnapshot {
+    private static final int MAGIC = 0x45434154;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+
+    private final ByteBuffer buffer;
+    private final Instant createdAt;
+    private final int count;
+    private final int categoryCount;
+    private final int categoryTable;
+    private final int strings;
+
+    private CatalogSnapshot(ByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a version " + VERSION + " catalog snapshot");
+        }
+        this.buffer = buffer;
+        this.createdAt = Instant.ofEpochMilli(buffer.getLong(8));
+        this.count = buffer.getInt(16);
+        this.categoryCount = buffer.getInt(20);
+        this.categoryTable = (int) buffer.getLong(24);
+        this.strings = (int) buffer.getLong(32);
+    }
+
+    public static CatalogSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CatalogSnapshot(mapped);
+        }
+    }
+
+    /**
+     * Writes products to a temporary file next to {@code path} and moves it into place, so readers
+     * never map a partially written snapshot.
+     */
+    public static void write(Path path, List<Product> products, Instant createdAt) throws IOException {
+        List<Product> byId = products.stream().sorted(Comparator.comparing(Product::productId)).toList();
+        int n = byId.size();
+
+        StringHeap heap = new StringHeap();
+        List<String> categories = new ArrayList<>(new TreeSet<>(byId.stream().map(Product::productCategory).toList()));
+        Map<String, Integer> categoryIndex = new HashMap<>();
+        int[] categoryOffsets = new int[categories.size()];
+        for (int i = 0; i < categories.size(); i++) {
+            categoryIndex.put(categories.get(i), i);
+            categoryOffsets[i] = heap.add(categories.get(i));
+        }
+        int[] names = new int[n];
+        int[] descriptions = new int[n];
+        int[] images = new int[n];
+        for (int row = 0; row < n; row++) {
+            Product product = byId.get(row);
+            names[row] = heap.add(product.productName());
+            descriptions[row] = heap.add(product.productDescription());
+            images[row] = heap.add(product.productImageUrl());
+        }
+        int[] byPrice = IntStream.range(0, n).boxed()
+                .sorted(Comparator.comparingDouble(row -> byId.get(row).productPrice()))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        long categoryTable = HEADER_SIZE + (long) n * (Integer.BYTES * 7 + Double.BYTES);
+        long stringHeap = categoryTable + (long) categories.size() * Integer.BYTES;
+        long size = stringHeap + heap.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Catalog snapshot of " + size + " bytes exceeds the 2 GB mapping limit");
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) size);
+        out.putInt(MAGIC).putInt(VERSION).putLong(createdAt.toEpochMilli())
+                .putInt(n).putInt(categories.size()).putLong(categoryTable).putLong(stringHeap);
+        out.position(HEADER_SIZE);
+        byId.forEach(product -> out.putInt(product.productId()));
+        byId.forEach(product -> out.putDouble(product.productPrice()));
+        byId.forEach(product -> out.putInt(product.productStock()));
+        byId.forEach(product -> out.putInt(categoryIndex.get(product.productCategory())));
+        Arrays.stream(names).forEach(out::putInt);
+        Arrays.stream(descriptions).forEach(out::putInt);
+        Arrays.stream(images).forEach(out::putInt);
+        Arrays.stream(byPrice).forEach(out::putInt);
+        Arrays.stream(categoryOffsets).forEach(out::putInt);
+        out.put(heap.bytes());
+        out.flip();
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public Instant createdAt() {
+        return createdAt;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public Optional<Product> findById(int id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = id(mid);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return Optional.of(product(mid));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<String> categories() {
+        List<String> categories = new ArrayList<>(categoryCount);
+        for (int i = 0; i < categoryCount; i++) {
+            categories.add(category(i));
+        }
+        return categories;
+    }
+
+    public Page<Product> findByPriceBetween(double min, double max, Pageable pageable) {
+        int from = firstPriceAtLeast(min);
+        int to = firstPriceAbove(max);
+        int total = Math.max(0, to - from);
+        int[] rows = new int[total];
+        for (int i = 0; i < total; i++) {
+            rows[i] = priceOrder(from + i);
+        }
+        rows = sorted(rows, pageable.getSort());
+
+        int start = (int) Math.min(pageable.getOffset(), total);
+        int end = Math.min(start + pageable.getPageSize(), total);
+        List<Product> content = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            content.add(product(rows[i]));
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    public List<CategoryStats> categoryStats() {
+        long[] counts = new long[categoryCount];
+        double[] sums = new double[categoryCount];
+        double[] mins = new double[categoryCount];
+        double[] maxes = new double[categoryCount];
+        long[] stock = new long[categoryCount];
+        Arrays.fill(mins, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxes, Double.NEGATIVE_INFINITY);
+        for (int row = 0; row < count; row++) {
+            int category = categoryOf(row);
+            double price = price(row);
+            counts[category]++;
+            sums[category] += price;
+            mins[category] = Math.min(mins[category], price);
+            maxes[category] = Math.max(maxes[category], price);
+            stock[category] += stock(row);
+        }
+        List<CategoryStats> stats = new ArrayList<>(categoryCount);
+        for (int i = 0; i < categoryCount; i++) {
+            stats.add(new CategoryStats(category(i), counts[i], sums[i], sums[i] / counts[i], mins[i], maxes[i], stock[i]));
+        }
+        return stats;
+    }
+
+    private int[] sorted(int[] rows, Sort sort) {
+        Sort.Order order = sort.stream().findFirst().orElse(null);
+        if (order == null || "productPrice".equals(order.getProperty())) {
+            return order != null && order.isDescending() ? reversed(rows) : rows;
+        }
+        return switch (order.getProperty()) {
+            case "productId" -> sortedById(rows, order.isDescending());
+            case "productName" -> sortedByName(rows, order.isDescending());
+            default -> throw new UnsupportedQueryException(
+                    "Sorting by '" + order.getProperty() + "' is not supported by the catalog snapshot");
+        };
+    }
+
+    // Rows are written in id order, so the row number is the id order
+    private static int[] sortedById(int[] rows, boolean descending) {
+        int[] sorted = rows.clone();
+        Arrays.sort(sorted);
+        return descending ? reversed(sorted) : sorted;
+    }
+
+    // Names are decoded once per row up front; the stable sort keeps equal names in price order
+    private int[] sortedByName(int[] rows, boolean descending) {
+        NamedRow[] named = new NamedRow[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            named[i] = new NamedRow(name(rows[i]), rows[i]);
+        }
+        Comparator<NamedRow> comparator = Comparator.comparing(NamedRow::name);
+        Arrays.sort(named, descending ? comparator.reversed() : comparator);
+        int[] sorted = new int[rows.length];
+        for (int i = 0; i < named.length; i++) {
+            sorted[i] = named[i].row();
+        }
+        return sorted;
+    }
+
+    private record NamedRow(String name, int row) {}
+
+    private static int[] reversed(int[] rows) {
+        int[] reversed = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            reversed[i] = rows[rows.length - 1 - i];
+        }
+        return reversed;
+    }
+
+    private int firstPriceAtLeast(double price) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (price(priceOrder(mid)) < price) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int firstPriceAbove(double price) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (price(priceOrder(mid)) <= price) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private Product product(int row) {
+        return new Product(id(row), name(row), string(intColumn(5, row)), price(row),
+                category(categoryOf(row)), stock(row), string(intColumn(6, row)));
+    }
+
+    private int id(int row) {
+        return intColumn(0, row);
+    }
+
+    private double price(int row) {
+        return buffer.getDouble(HEADER_SIZE + count * Integer.BYTES + row * Double.BYTES);
+    }
+
+    private int stock(int row) {
+        return intColumn(2, row);
+    }
+
+    private int categoryOf(int row) {
+        return intColumn(3, row);
+    }
+
+    private String name(int row) {
+        return string(intColumn(4, row));
+    }
+
+    private int priceOrder(int index) {
+        return intColumn(7, index);
+    }
+
+    private String category(int index) {
+        return string(buffer.getInt(categoryTable + index * Integer.BYTES));
+    }
+
+    private int intColumn(int column, int row) {
+        // Column 1 holds doubles, so every later column starts one extra n ints further on
+        int start = HEADER_SIZE + column * count * Integer.BYTES + (column > 1 ? count * Integer.BYTES : 0);
+        return buffer.getInt(start + row * Integer.BYTES);
+    }
+
+    private String string(int offset) {
+        int position = strings + offset;
+        int length = buffer.getInt(position);
+        byte[] bytes = new byte[length];
+        buffer.get(position + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class StringHeap {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        int add(String value) {
+            int offset = bytes.size();
+            byte[] encoded = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+            bytes.writeBytes(ByteBuffer.allocate(Integer.BYTES).putInt(encoded.length).array());
+            bytes.writeBytes(encoded);
+            return offset;
+        }
+
+        int size() {
+            return bytes.size();
+        }
+
+        byte[] bytes() {
+            return bytes.toByteArray();
+        }
+    }
+}
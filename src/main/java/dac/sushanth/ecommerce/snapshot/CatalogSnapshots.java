@@ -0,0 +1,167 @@
+package dac.sushanth.ecommerce.snapshot;
+
+import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.config.SnapshotProperties;
+import dac.sushanth.ecommerce.event.CatalogInvalidatedEvent;
+import dac.sushanth.ecommerce.exception.DeadlineExceededException;
+import dac.sushanth.ecommerce.exception.ReadOnlyReplicaException;
+import dac.sushanth.ecommerce.exception.UnsupportedQueryException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Owns the mapped {@link CatalogSnapshot}. In STANDBY mode the snapshot is rewritten from
+ * MongoDB on a fixed delay and answers reads while MongoDB is unreachable; in EDGE mode it is
+ * the only data source, is re-mapped whenever the file changes, and writes are refused. A re-map
+ * publishes a {@link CatalogInvalidatedEvent} so cached response bodies are rebuilt from the new
+ * snapshot; a fallback read only flags its own body through {@link SnapshotFallback}.
+ */
+@Component
+public class CatalogSnapshots {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshots.class);
+
+    private final SnapshotProperties properties;
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter fallbacks;
+    private volatile CatalogSnapshot current;
+    private volatile FileTime loadedModified;
+
+    public CatalogSnapshots(SnapshotProperties properties, MongoTemplate mongoTemplate,
+                            ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.eventPublisher = eventPublisher;
+        this.fallbacks = meterRegistry.counter("ecommerce.snapshot.fallbacks");
+        Gauge.builder("ecommerce.snapshot.products", this, snapshots -> snapshots.current == null ? 0 : snapshots.current.size())
+                .register(meterRegistry);
+        Gauge.builder("ecommerce.snapshot.age", this, CatalogSnapshots::ageSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void load() {
+        if (properties.mode() == SnapshotProperties.Mode.OFF) {
+            return;
+        }
+        if (!reload() && properties.mode() == SnapshotProperties.Mode.EDGE) {
+            throw new IllegalStateException("Edge mode requires a readable catalog snapshot at " + properties.path());
+        }
+    }
+
+    public void requireWritable() {
+        if (properties.mode() == SnapshotProperties.Mode.EDGE) {
+            throw new ReadOnlyReplicaException("This replica serves a read-only catalog snapshot");
+        }
+    }
+
+    /**
+     * Runs {@code database}, or answers from the snapshot in EDGE mode and, in STANDBY mode, when
+     * MongoDB is unreachable or did not answer within the request deadline.
+     */
+    public <T> T read(Supplier<T> database, Function<CatalogSnapshot, T> fromSnapshot) {
+        return switch (properties.mode()) {
+            case EDGE -> fromSnapshot.apply(current);
+            case STANDBY -> readWithFallback(database, fromSnapshot);
+            case OFF -> database.get();
+        };
+    }
+
+    private <T> T readWithFallback(Supplier<T> database, Function<CatalogSnapshot, T> fromSnapshot) {
+        try {
+            return database.get();
+        } catch (DataAccessResourceFailureException | DeadlineExceededException ex) {
+            CatalogSnapshot snapshot = current;
+            if (snapshot == null) {
+                throw ex;
+            }
+            fallbacks.increment();
+            logger.warn("Serving read from catalog snapshot taken {}: {}", snapshot.createdAt(), ex.getMessage());
+            SnapshotFallback.mark();
+            return fromSnapshot.apply(snapshot);
+        }
+    }
+
+    public static <T> Function<CatalogSnapshot, T> unsupported(String operation) {
+        return snapshot -> {
+            throw new UnsupportedQueryException(operation + " is not available from the catalog snapshot");
+        };
+    }
+
+    @Scheduled(fixedDelayString = "${ecommerce.snapshot.interval:5m}")
+    public void refresh() {
+        switch (properties.mode()) {
+            case STANDBY -> write();
+            case EDGE -> {
+                FileTime modified = modified();
+                if (modified != null && !modified.equals(loadedModified) && reload()) {
+                    eventPublisher.publishEvent(new CatalogInvalidatedEvent("catalog snapshot re-mapped"));
+                }
+            }
+            default -> { }
+        }
+    }
+
+    void write() {
+        long start = System.nanoTime();
+        try {
+            List<Product> products = mongoTemplate.findAll(Product.class);
+            CatalogSnapshot.write(properties.path(), products, Instant.now());
+            reload();
+            logger.info("Wrote catalog snapshot of {} products in {} ms", products.size(),
+                    Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } catch (IOException | RuntimeException ex) {
+            logger.warn("Could not write catalog snapshot, keeping the previous one: {}", ex.getMessage());
+        }
+    }
+
+    private boolean reload() {
+        try {
+            FileTime modified = modified();
+            if (modified == null) {
+                logger.info("No catalog snapshot at {}", properties.path());
+                return false;
+            }
+            CatalogSnapshot snapshot = CatalogSnapshot.open(properties.path());
+            current = snapshot;
+            loadedModified = modified;
+            logger.info("Mapped catalog snapshot of {} products taken {}", snapshot.size(), snapshot.createdAt());
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            logger.warn("Could not map catalog snapshot {}: {}", properties.path(), ex.getMessage());
+            return false;
+        }
+    }
+
+    private FileTime modified() {
+        try {
+            return Files.getLastModifiedTime(properties.path());
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private double ageSeconds() {
+        CatalogSnapshot snapshot = current;
+        return snapshot == null ? 0 : Duration.between(snapshot.createdAt(), Instant.now()).toSeconds();
+    }
+}
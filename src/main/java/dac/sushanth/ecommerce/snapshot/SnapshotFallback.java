@@ -0,0 +1,22 @@
+package dac.sushanth.ecommerce.snapshot;
+
+/**
+ * Records that a read on the current thread was answered from a STANDBY snapshot instead of
+ * MongoDB, so a caller that keeps results, such as the response cache, can leave that one body out.
+ */
+public final class SnapshotFallback {
+    private static final ThreadLocal<Boolean> SERVED = new ThreadLocal<>();
+
+    private SnapshotFallback() {}
+
+    public static void mark() {
+        SERVED.set(Boolean.TRUE);
+    }
+
+    /** Returns whether a read since the previous call fell back to the snapshot, and resets the flag. */
+    public static boolean consume() {
+        boolean served = SERVED.get() != null;
+        SERVED.remove();
+        return served;
+    }
+}
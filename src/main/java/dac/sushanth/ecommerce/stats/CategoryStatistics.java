@@ -0,0 +1,263 @@
+package dac.sushanth.ecommerce.stats;
+
+import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.config.CategoryStatsProperties;
+import dac.sushanth.ecommerce.dto.CategoryStats;
+import dac.sushanth.ecommerce.dto.CategoryStatsAggregation;
+import dac.sushanth.ecommerce.event.ProductChangeEvent;
+import dac.sushanth.ecommerce.event.ProductsBulkUpdatedEvent;
+import dac.sushanth.ecommerce.repository.ProductRepository;
+import org.bson.BsonTimestamp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-category count, price and stock aggregates held in memory. Seeded from a MongoDB
+ * aggregation at startup, kept current by product write events and reconciled periodically.
+ * Removing a product at the current min or max price cannot be undone from the aggregate alone,
+ * so the category is marked stale and re-aggregated (an indexed query) on the next read. Writes
+ * arriving while an aggregation runs are replayed onto its result once it is loaded, unless their
+ * operation time shows the aggregation's snapshot already contains them.
+ */
+@Component
+@Order(5)
+public class CategoryStatistics implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(CategoryStatistics.class);
+
+    private final CategoryStatsProperties properties;
+    private final ProductRepository repository;
+    private final Map<String, Aggregate> aggregates = new TreeMap<>();
+    private final Set<String> staleCategories = new HashSet<>();
+    private final List<Load> loads = new ArrayList<>();
+    private boolean allStale = true;
+
+    public CategoryStatistics(CategoryStatsProperties properties, ProductRepository repository) {
+        this.properties = properties;
+        this.repository = repository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.enabled()) {
+            return;
+        }
+        try {
+            reconcile();
+        } catch (RuntimeException ex) {
+            logger.warn("Could not seed category statistics, they will be loaded on first use: {}", ex.getMessage());
+        }
+    }
+
+    public List<CategoryStats> snapshot() {
+        if (!properties.enabled()) {
+            return repository.aggregateCategoryStats();
+        }
+        boolean reconcile;
+        List<String> stale;
+        synchronized (aggregates) {
+            reconcile = allStale;
+            stale = new ArrayList<>(staleCategories);
+        }
+        if (reconcile) {
+            reconcile();
+        } else {
+            stale.forEach(this::refresh);
+        }
+        synchronized (aggregates) {
+            return aggregates.entrySet().stream()
+                    .map(entry -> entry.getValue().toStats(entry.getKey()))
+                    .toList();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${ecommerce.category-stats.reconcile-interval:10m}",
+            fixedDelayString = "${ecommerce.category-stats.reconcile-interval:10m}")
+    public void reconcile() {
+        if (!properties.enabled()) {
+            return;
+        }
+        Load load = begin();
+        CategoryStatsAggregation aggregation = load(load, () -> repository.aggregateCategoryStatsAtSnapshot(null));
+        List<CategoryStats> loaded = aggregation.stats();
+        int replayed;
+        synchronized (aggregates) {
+            loads.remove(load);
+            aggregates.clear();
+            loaded.forEach(stats -> aggregates.put(stats.category(), Aggregate.of(stats)));
+            staleCategories.clear();
+            staleCategories.addAll(load.bulkCategories);
+            allStale = load.bulkAll;
+            List<ProductChangeEvent> missed = load.missedBy(aggregation.atClusterTime());
+            missed.forEach(event -> apply(event, null));
+            replayed = missed.size();
+        }
+        logger.debug("Reconciled statistics for {} categories, replayed {} writes", loaded.size(), replayed);
+    }
+
+    @EventListener
+    public void onProductChange(ProductChangeEvent event) {
+        if (!properties.enabled()) {
+            return;
+        }
+        synchronized (aggregates) {
+            loads.forEach(load -> load.changes.add(event));
+            apply(event, null);
+        }
+    }
+
+    @EventListener
+    public void onBulkUpdate(ProductsBulkUpdatedEvent event) {
+        if (!properties.enabled()) {
+            return;
+        }
+        synchronized (aggregates) {
+            String category = event.filter().category();
+            if (category == null) {
+                allStale = true;
+                loads.forEach(load -> load.bulkAll = true);
+            } else {
+                staleCategories.add(category);
+                loads.forEach(load -> load.bulkCategories.add(category));
+            }
+        }
+    }
+
+    /** Applies the parts of {@code event} that fall in {@code category}, or all of it when null. */
+    private void apply(ProductChangeEvent event, String category) {
+        if (event.previous() != null && (category == null || category.equals(event.previous().productCategory()))) {
+            remove(event.previous());
+        }
+        if (event.current() != null && (category == null || category.equals(event.current().productCategory()))) {
+            aggregates.computeIfAbsent(event.current().productCategory(), key -> new Aggregate())
+                    .add(event.current());
+        }
+    }
+
+    private void remove(Product product) {
+        Aggregate aggregate = aggregates.get(product.productCategory());
+        if (aggregate == null) {
+            return;
+        }
+        if (aggregate.remove(product)) {
+            staleCategories.add(product.productCategory());
+        }
+        if (aggregate.count == 0) {
+            aggregates.remove(product.productCategory());
+            staleCategories.remove(product.productCategory());
+        }
+    }
+
+    private void refresh(String category) {
+        Load load = begin();
+        CategoryStatsAggregation aggregation = load(load, () -> repository.aggregateCategoryStatsAtSnapshot(category));
+        List<CategoryStats> loaded = aggregation.stats();
+        synchronized (aggregates) {
+            loads.remove(load);
+            if (loaded.isEmpty()) {
+                aggregates.remove(category);
+            } else {
+                aggregates.put(category, Aggregate.of(loaded.get(0)));
+            }
+            if (load.bulkAll || load.bulkCategories.contains(category)) {
+                staleCategories.add(category);
+            } else {
+                staleCategories.remove(category);
+            }
+            load.missedBy(aggregation.atClusterTime()).forEach(event -> apply(event, category));
+        }
+    }
+
+    private Load begin() {
+        Load load = new Load();
+        synchronized (aggregates) {
+            loads.add(load);
+        }
+        return load;
+    }
+
+    private CategoryStatsAggregation load(Load load, Supplier<CategoryStatsAggregation> aggregation) {
+        try {
+            return aggregation.get();
+        } catch (RuntimeException ex) {
+            synchronized (aggregates) {
+                loads.remove(load);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Writes seen while one aggregation runs. Without an operation time on both the write and the
+     * aggregation there is no way to tell whether the write is already in the result, so it is
+     * replayed and may be counted twice until the next reconcile that no write overlaps.
+     */
+    private static final class Load {
+        final List<ProductChangeEvent> changes = new ArrayList<>();
+        final Set<String> bulkCategories = new HashSet<>();
+        boolean bulkAll;
+
+        List<ProductChangeEvent> missedBy(BsonTimestamp atClusterTime) {
+            if (atClusterTime == null) {
+                return changes;
+            }
+            return changes.stream()
+                    .filter(event -> event.operationTime() == null || event.operationTime().compareTo(atClusterTime) > 0)
+                    .toList();
+        }
+    }
+
+    static final class Aggregate {
+        long count;
+        double priceSum;
+        double minPrice = Double.POSITIVE_INFINITY;
+        double maxPrice = Double.NEGATIVE_INFINITY;
+        long totalStock;
+
+        static Aggregate of(CategoryStats stats) {
+            Aggregate aggregate = new Aggregate();
+            aggregate.count = stats.count();
+            aggregate.priceSum = stats.priceSum();
+            aggregate.minPrice = stats.minPrice();
+            aggregate.maxPrice = stats.maxPrice();
+            aggregate.totalStock = stats.totalStock();
+            return aggregate;
+        }
+
+        void add(Product product) {
+            double price = product.productPrice();
+            count++;
+            priceSum += price;
+            minPrice = Math.min(minPrice, price);
+            maxPrice = Math.max(maxPrice, price);
+            totalStock += product.productStock();
+        }
+
+        /** Returns true when the removed price was an extreme, leaving min or max unknown. */
+        boolean remove(Product product) {
+            double price = product.productPrice();
+            count--;
+            priceSum -= price;
+            totalStock -= product.productStock();
+            return count > 0 && (price <= minPrice || price >= maxPrice);
+        }
+
+        CategoryStats toStats(String category) {
+            return new CategoryStats(category, count, priceSum, count == 0 ? 0 : priceSum / count,
+                    minPrice, maxPrice, totalStock);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package dac.sushanth.ecommerce.warmup;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Declares latency stable once the spread of the last {@code window} round times is within
+ * {@code tolerance} of their median and at least {@code minRounds} rounds have been recorded.
+ */
+class SteadyStateDetector {
+    private final int minRounds;
+    private final int window;
+    private final double tolerance;
+    private final Deque<Long> recent = new ArrayDeque<>();
+    private int rounds;
+
+    SteadyStateDetector(int minRounds, int window, double tolerance) {
+        this.minRounds = minRounds;
+        this.window = Math.max(2, window);
+        this.tolerance = tolerance;
+    }
+
+    boolean record(long roundNanos) {
+        rounds++;
+        recent.addLast(roundNanos);
+        if (recent.size() > window) {
+            recent.removeFirst();
+        }
+        if (rounds < minRounds || recent.size() < window) {
+            return false;
+        }
+        long[] sorted = recent.stream().mapToLong(Long::longValue).sorted().toArray();
+        long median = sorted[sorted.length / 2];
+        return median > 0 && (sorted[sorted.length - 1] - sorted[0]) <= median * tolerance;
+    }
+
+    int rounds() {
+        return rounds;
+    }
+}
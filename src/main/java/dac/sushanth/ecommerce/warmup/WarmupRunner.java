@@ -0,0 +1,171 @@
+package dac.sushanth.ecommerce.warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.cache.ProductResponseCache;
+import dac.sushanth.ecommerce.config.WarmupProperties;
+import dac.sushanth.ecommerce.controller.ProductController;
+import dac.sushanth.ecommerce.dto.ProductRequest;
+import dac.sushanth.ecommerce.service.ProductService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Runs before the application reports ready: opens the MongoDB connection pool, loads hot
+ * products and categories into the response cache, then drives synthetic calls through the
+ * controller and service until round latency settles. Readiness only flips to ACCEPTING_TRAFFIC
+ * after all application runners complete, so traffic arrives on a warm node.
+ */
+@Component
+@Order(10)
+public class WarmupRunner implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(WarmupRunner.class);
+    private static final Pageable DEFAULT_PAGE = PageRequest.of(0, 10, Sort.by("productName"));
+    private static final int IDS_PER_ROUND = 10;
+
+    private final WarmupProperties properties;
+    private final MongoTemplate mongoTemplate;
+    private final ProductService service;
+    private final ProductController controller;
+    private final ProductResponseCache responseCache;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final AtomicLong timeToSteadyStateMillis = new AtomicLong();
+    private final AtomicLong warmupMillis = new AtomicLong();
+    private final AtomicLong rounds = new AtomicLong();
+    private volatile boolean stable;
+
+    public WarmupRunner(WarmupProperties properties, MongoTemplate mongoTemplate, ProductService service,
+                        ProductController controller, ProductResponseCache responseCache, ObjectMapper objectMapper,
+                        Validator validator, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.mongoTemplate = mongoTemplate;
+        this.service = service;
+        this.controller = controller;
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+
+        TimeGauge.builder("ecommerce.warmup.time-to-steady-state", timeToSteadyStateMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Time from JVM start until warm-up reached steady state, 0 if it did not")
+                .register(meterRegistry);
+        TimeGauge.builder("ecommerce.warmup.duration", warmupMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("ecommerce.warmup.rounds", rounds, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("ecommerce.warmup.stable", this, runner -> runner.stable ? 1 : 0).register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.enabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            openConnections();
+            driveSyntheticTraffic(primeCaches(), start);
+        } catch (RuntimeException ex) {
+            logger.warn("Warm-up aborted, continuing startup: {}", ex.getMessage());
+        }
+        warmupMillis.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        if (stable) {
+            timeToSteadyStateMillis.set(ManagementFactory.getRuntimeMXBean().getUptime());
+            logger.info("Warm-up reached steady state in {} ms after {} rounds, time to steady state {} ms",
+                    warmupMillis.get(), rounds.get(), timeToSteadyStateMillis.get());
+        } else {
+            // Leave time-to-steady-state at 0 so dashboards do not read an unstable start as a settled one
+            logger.info("Warm-up ended in {} ms after {} rounds without reaching steady state",
+                    warmupMillis.get(), rounds.get());
+        }
+    }
+
+    private void openConnections() {
+        int connections = properties.connectionPoolMinSize();
+        if (connections <= 0) {
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(connections);
+        try {
+            CompletableFuture.allOf(IntStream.range(0, connections)
+                    .mapToObj(i -> CompletableFuture.runAsync(() -> mongoTemplate.executeCommand("{ ping: 1 }"), executor))
+                    .toArray(CompletableFuture[]::new))
+                    .join();
+        } finally {
+            executor.shutdown();
+        }
+        logger.debug("Opened {} MongoDB connections", connections);
+    }
+
+    private List<Product> primeCaches() {
+        Page<Product> hot = service.search(null, null, null, null,
+                PageRequest.of(0, Math.max(1, properties.hotProducts()), DEFAULT_PAGE.getSort()));
+        hot.forEach(responseCache::put);
+        responseCache.categories(service::getAllCategories);
+        logger.debug("Primed response cache with {} products and the category list", hot.getNumberOfElements());
+        return hot.getContent();
+    }
+
+    private void driveSyntheticTraffic(List<Product> hot, long start) {
+        SteadyStateDetector detector = new SteadyStateDetector(
+                properties.minRounds(), properties.stableWindow(), properties.stableTolerance());
+        ProductRequest sample = new ProductRequest("Warm-up", "", 1.0, "", 0, "");
+        long deadline = start + properties.maxDuration().toNanos();
+        List<Integer> hotIds = hot.stream().map(Product::productId).toList();
+        String category = hot.isEmpty() ? null : hot.get(0).productCategory();
+
+        while (detector.rounds() < properties.maxRounds() && System.nanoTime() < deadline) {
+            long roundStart = System.nanoTime();
+            round(hotIds, detector.rounds(), category, sample);
+            rounds.incrementAndGet();
+            if (detector.record(System.nanoTime() - roundStart)) {
+                stable = true;
+                return;
+            }
+        }
+    }
+
+    private void round(List<Integer> hotIds, int round, String category, ProductRequest sample) {
+        for (int i = 0; i < Math.min(IDS_PER_ROUND, hotIds.size()); i++) {
+            Integer id = hotIds.get((round * IDS_PER_ROUND + i) % hotIds.size());
+            controller.getById(id);
+            service.getById(id);
+        }
+        serialize(controller.search(null, null, null, null, DEFAULT_PAGE).getBody());
+        if (category != null) {
+            serialize(controller.search(null, category, null, null, DEFAULT_PAGE).getBody());
+        }
+        controller.getAllCategories();
+        validator.validate(sample);
+    }
+
+    private void serialize(Object body) {
+        try {
+            objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package dac.sushanth.ecommerce.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.config.ResponseCacheProperties;
+import dac.sushanth.ecommerce.dto.BulkOperation;
+import dac.sushanth.ecommerce.dto.ProductFilter;
+import dac.sushanth.ecommerce.event.CatalogInvalidatedEvent;
+import dac.sushanth.ecommerce.event.ProductChangeEvent;
+import dac.sushanth.ecommerce.event.ProductsBulkUpdatedEvent;
+import dac.sushanth.ecommerce.snapshot.SnapshotFallback;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductResponseCacheTest {
+
+    private ProductResponseCache cache;
+    private Product product;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductResponseCache(new ResponseCacheProperties(true, 2, Duration.ofMinutes(5)), new ObjectMapper(), new SimpleMeterRegistry());
+        product = new Product(1, "Apple iPhone", "Smartphone", 999.99, "Electronics", 5, "url1");
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void product_servesSameBytesWithoutReloading() {
+        byte[] first = cache.product(1, this::load).orElseThrow();
+        byte[] second = cache.product(1, this::load).orElseThrow();
+
+        assertThat(second).isSameAs(first);
+        assertThat(new String(first, StandardCharsets.UTF_8)).contains("\"productName\":\"Apple iPhone\"");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void product_reloadsAfterWrite() {
+        cache.product(1, this::load);
+        cache.onProductChange(ProductChangeEvent.updated(product, product));
+        cache.product(1, this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void product_reloadsAfterBulkUpdate() {
+        cache.product(1, this::load);
+        cache.onBulkUpdate(new ProductsBulkUpdatedEvent(new ProductFilter("Electronics", null, null, null),
+                new BulkOperation(BulkOperation.Type.STOCK_INCREMENT, 1.0), 1));
+        cache.product(1, this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void product_doesNotStoreBodyLoadedDuringWrite() {
+        cache.product(1, id -> {
+            cache.onProductChange(ProductChangeEvent.updated(product, product));
+            return load(id);
+        });
+        cache.product(1, this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void product_doesNotStoreBodyServedFromStandbySnapshot() {
+        cache.product(2, this::load);
+        cache.product(1, id -> {
+            SnapshotFallback.mark();
+            return load(id);
+        });
+        AtomicInteger categoryLoads = new AtomicInteger();
+        cache.categories(() -> {
+            SnapshotFallback.mark();
+            return List.of("Electronics" + categoryLoads.incrementAndGet());
+        });
+        cache.categories(() -> List.of("Electronics" + categoryLoads.incrementAndGet()));
+        cache.product(1, this::load);
+        cache.product(2, this::load);
+
+        assertThat(loads).hasValue(3);
+        assertThat(categoryLoads).hasValue(2);
+    }
+
+    @Test
+    void product_reloadsAfterSnapshotRemap() {
+        cache.product(1, this::load);
+        cache.onCatalogInvalidated(new CatalogInvalidatedEvent("catalog snapshot re-mapped"));
+        cache.product(1, this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void product_evictsLeastRecentlyUsed() {
+        cache.product(1, this::load);
+        cache.product(2, this::load);
+        cache.product(1, this::load);
+        cache.product(3, this::load);
+
+        assertThat(cache.size()).isEqualTo(2);
+        cache.product(1, this::load);
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void product_reloadsExpiredBody() {
+        ProductResponseCache expiring = new ProductResponseCache(
+                new ResponseCacheProperties(true, 2, Duration.ZERO), new ObjectMapper(), new SimpleMeterRegistry());
+
+        expiring.product(1, this::load);
+        expiring.product(1, this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void product_keepsWriteVersionsWithinTheLruBound() {
+        for (int id = 1; id <= 100; id++) {
+            cache.onProductChange(ProductChangeEvent.deleted(
+                    new Product(id, "Apple iPhone", "Smartphone", 999.99, "Electronics", 5, "url1")));
+        }
+
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void product_doesNotStoreBodyLoadedBeforeAnEvictedWrite() {
+        cache.product(1, id -> {
+            cache.onProductChange(ProductChangeEvent.updated(product, product));
+            cache.product(2, this::load);
+            cache.product(3, this::load);
+            return load(id);
+        });
+        cache.product(1, this::load);
+
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void categories_invalidatedByAnyWrite() {
+        AtomicInteger categoryLoads = new AtomicInteger();
+        cache.categories(() -> List.of("Electronics" + categoryLoads.incrementAndGet()));
+        byte[] cached = cache.categories(() -> List.of("Electronics" + categoryLoads.incrementAndGet()));
+        cache.onProductChange(ProductChangeEvent.created(product));
+        byte[] reloaded = cache.categories(() -> List.of("Electronics" + categoryLoads.incrementAndGet()));
+
+        assertThat(new String(cached, StandardCharsets.UTF_8)).isEqualTo("[\"Electronics1\"]");
+        assertThat(new String(reloaded, StandardCharsets.UTF_8)).isEqualTo("[\"Electronics2\"]");
+    }
+
+    private Optional<Product> load(Integer id) {
+        loads.incrementAndGet();
+        return Optional.of(new Product(id, "Apple iPhone", "Smartphone", 999.99, "Electronics", 5, "url1"));
+    }
+}
@@ -1,13 +1,34 @@
 package dac.sushanth.ecommerce.controller;
 
 import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.cache.ProductResponseCache;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandSucceededEvent;
+import dac.sushanth.ecommerce.config.DeadlineProperties;
+import dac.sushanth.ecommerce.config.ReadRoutingProperties;
+import dac.sushanth.ecommerce.config.ResponseCacheProperties;
+import dac.sushanth.ecommerce.deadline.RequestDeadline;
+import dac.sushanth.ecommerce.dto.BulkUpdateRequest;
+import dac.sushanth.ecommerce.dto.BulkUpdateResult;
+import dac.sushanth.ecommerce.dto.CategoryStats;
 import dac.sushanth.ecommerce.dto.ProductRequest;
+import dac.sushanth.ecommerce.exception.DeadlineExceededException;
+import dac.sushanth.ecommerce.exception.ServiceOverloadedException;
+import dac.sushanth.ecommerce.routing.CausalWriteTracker;
 import dac.sushanth.ecommerce.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.web.servlet.MockMvc;
@@ -15,19 +36,28 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(ProductController.class)
+@WebMvcTest(controllers = ProductController.class, properties = "ecommerce.read-routing.enabled=true")
+@Import({ProductResponseCache.class, SimpleMeterRegistry.class, CausalWriteTracker.class})
+@EnableConfigurationProperties({ResponseCacheProperties.class, DeadlineProperties.class, ReadRoutingProperties.class})
 class ProductControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private CausalWriteTracker writeTracker;
+
     @MockBean
     private ProductService productService;
 
@@ -84,6 +114,41 @@ class ProductControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void getProductByIdTest_servesCachedBody() throws Exception {
+        Mockito.when(productService.getById(2)).thenReturn(Optional.of(sampleProduct));
+
+        mockMvc.perform(get("/api/v1/products/2")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/products/2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.productPrice").value(99.99));
+
+        Mockito.verify(productService, Mockito.times(1)).getById(2);
+    }
+
+    @Test
+    void getAllCategoriesTest() throws Exception {
+        Mockito.when(productService.getAllCategories()).thenReturn(List.of("Electronics", "Footwear"));
+
+        mockMvc.perform(get("/api/v1/products/categories"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("Electronics"))
+                .andExpect(jsonPath("$[1]").value("Footwear"));
+    }
+
+    @Test
+    void getCategoryStatisticsTest() throws Exception {
+        Mockito.when(productService.getCategoryStatistics()).thenReturn(List.of(
+                new CategoryStats("Electronics", 2, 1500.0, 750.0, 500.0, 1000.0, 8)));
+
+        mockMvc.perform(get("/api/v1/products/categories/statistics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].category").value("Electronics"))
+                .andExpect(jsonPath("$[0].averagePrice").value(750.0))
+                .andExpect(jsonPath("$[0].totalStock").value(8));
+    }
+
     @Test
     void createProductTest() throws Exception {
         Mockito.when(productService.create(any(ProductRequest.class))).thenReturn(sampleProduct);
@@ -144,6 +209,53 @@ class ProductControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void bulkUpdateTest() throws Exception {
+        Mockito.when(productService.bulkUpdate(any(BulkUpdateRequest.class)))
+                .thenReturn(new BulkUpdateResult(12, 10, false));
+
+        mockMvc.perform(post("/api/v1/products/bulk-update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                        {
+                            "filter":{"category":"Electronics"},
+                            "operation":{"type":"PRICE_PERCENT","value":-10}
+                        }
+                        """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched").value(12))
+                .andExpect(jsonPath("$.modified").value(10));
+    }
+
+    @Test
+    void bulkUpdateTest_rejectsUnrestrictedFilter() throws Exception {
+        mockMvc.perform(post("/api/v1/products/bulk-update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                        {
+                            "filter":{},
+                            "operation":{"type":"STOCK_SET","value":1}
+                        }
+                        """))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$['filter.restricted']").exists())
+                .andExpect(jsonPath("$['operation.valueValid']").doesNotExist());
+    }
+
+    @Test
+    void bulkUpdateTest_rejectsStockOutsideIntRange() throws Exception {
+        mockMvc.perform(post("/api/v1/products/bulk-update")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                        {
+                            "filter":{"category":"Electronics"},
+                            "operation":{"type":"STOCK_INCREMENT","value":3000000000}
+                        }
+                        """))
+                .andExpect(status().isBadRequest());
+        Mockito.verify(productService, Mockito.never()).bulkUpdate(any());
+    }
+
     @Test
     void deleteProductTest() throws Exception {
         Mockito.doNothing().when(productService).delete(1);
@@ -152,6 +264,35 @@ class ProductControllerTest {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    void deleteProductTest_returnsOperationTimeOfTheWrite() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            writeTracker.commandSucceeded(new CommandSucceededEvent(null, 1, 1,
+                    new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress())), "ecommerce",
+                    "delete", new BsonDocument("operationTime", new BsonTimestamp(1700000000, 3)), 0));
+            return null;
+        }).when(productService).delete(1);
+
+        mockMvc.perform(delete("/api/v1/products/1"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("X-Operation-Time", "1700000000.3"));
+
+        mockMvc.perform(put("/api/v1/products/999")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                        {
+                            "productName":"Not Found",
+                            "productDescription":"Not Found",
+                            "productPrice":1.0,
+                            "productCategory":"None",
+                            "productStock":0,
+                            "productImageUrl":""
+                        }
+                        """))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist("X-Operation-Time"));
+    }
+
     @Test
     void searchProductsByNameTest() throws Exception {
         Page<Product> page = new PageImpl<>(List.of(sampleProduct));
@@ -184,4 +325,42 @@ class ProductControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content[0].productPrice").value(99.99));
     }
+
+    @Test
+    void searchProductsTest_overloaded() throws Exception {
+        Mockito.when(productService.search(any(), any(), any(), any(), any(Pageable.class)))
+                .thenThrow(new ServiceOverloadedException("search", Duration.ofSeconds(2)));
+
+        mockMvc.perform(get("/api/v1/products"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.status").value(503));
+    }
+
+    @Test
+    void searchProductsTest_appliesRequestedDeadline() throws Exception {
+        AtomicReference<OptionalLong> remaining = new AtomicReference<>();
+        Mockito.when(productService.search(any(), any(), any(), any(), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    remaining.set(RequestDeadline.remainingMillis());
+                    return new PageImpl<>(List.of(sampleProduct));
+                });
+
+        mockMvc.perform(get("/api/v1/products").header("X-Request-Timeout", "800"))
+                .andExpect(status().isOk());
+
+        assertThat(remaining.get()).isPresent();
+        assertThat(remaining.get().getAsLong()).isBetween(1L, 800L);
+        assertThat(RequestDeadline.remainingMillis()).isEmpty();
+    }
+
+    @Test
+    void searchProductsTest_deadlineExceeded() throws Exception {
+        Mockito.when(productService.search(any(), any(), any(), any(), any(Pageable.class)))
+                .thenThrow(new DeadlineExceededException("Request deadline exceeded while waiting for MongoDB"));
+
+        mockMvc.perform(get("/api/v1/products"))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.status").value(504));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+package dac.sushanth.ecommerce.event;
+
+import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.config.ChangeFeedProperties;
+import dac.sushanth.ecommerce.dto.ProductChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductChangeFeedTest {
+
+    private ProductChangeFeed feed;
+    private Product phone;
+    private Product shoes;
+
+    @BeforeEach
+    void setUp() {
+        // Dispatch is a no-op so events stay in the subscriber buffers for inspection
+        feed = new ProductChangeFeed(new ChangeFeedProperties(2, 3, Duration.ofMinutes(1), Duration.ofSeconds(1)), task -> {});
+        phone = new Product(1, "Apple iPhone", "Smartphone", 999.99, "Electronics", 5, "url1");
+        shoes = new Product(2, "Nike Shoes", "Running shoes", 79.99, "Footwear", 20, "url2");
+    }
+
+    @Test
+    void onProductChange_enqueuesOnlyMatchingEvents() {
+        ProductChangeFeed.Subscription electronics = subscribe("Electronics", null, null);
+        ProductChangeFeed.Subscription byId = subscribe(null, Set.of(2), null);
+
+        feed.onProductChange(ProductChangeEvent.created(phone));
+        feed.onProductChange(ProductChangeEvent.created(shoes));
+
+        assertThat(electronics.queue).extracting(ProductChange::productId).containsExactly(1);
+        assertThat(byId.queue).extracting(ProductChange::productId).containsExactly(2);
+    }
+
+    @Test
+    void onProductChange_notifiesOldCategory_whenProductMovesOut() {
+        ProductChangeFeed.Subscription electronics = subscribe("Electronics", null, null);
+        Product moved = new Product(1, "Apple iPhone", "Smartphone", 999.99, "Refurbished", 5, "url1");
+
+        feed.onProductChange(ProductChangeEvent.updated(phone, moved));
+
+        assertThat(electronics.queue)
+            .singleElement()
+            .satisfies(change -> assertThat(change.productCategory()).isEqualTo("Refurbished"));
+    }
+
+    @Test
+    void onProductChange_resetsSubscriber_whenBufferIsFull() {
+        ProductChangeFeed.Subscription subscription = subscribe(null, null, null);
+
+        feed.onProductChange(ProductChangeEvent.created(phone));
+        feed.onProductChange(ProductChangeEvent.created(shoes));
+        assertThat(subscription.resetRequired).isFalse();
+
+        feed.onProductChange(ProductChangeEvent.deleted(shoes));
+        assertThat(feed.subscriberCount()).isEqualTo(1);
+        assertThat(subscription.resetRequired).isTrue();
+        assertThat(subscription.resetEventId).isEqualTo(3L);
+        assertThat(subscription.queue).isEmpty();
+    }
+
+    @Test
+    void expireStalledSends_dropsOnlySubscriberBlockedPastTheSendTimeout() {
+        ProductChangeFeed.Subscription stalled = subscribe(null, null, null);
+        ProductChangeFeed.Subscription sending = subscribe(null, null, null);
+        ProductChangeFeed.Subscription idle = subscribe(null, null, null);
+        stalled.sendStartedNanos = System.nanoTime() - Duration.ofSeconds(5).toNanos();
+        sending.sendStartedNanos = System.nanoTime();
+
+        feed.expireStalledSends();
+
+        assertThat(feed.subscriberCount()).isEqualTo(2);
+        feed.onProductChange(ProductChangeEvent.created(phone));
+        assertThat(stalled.queue).isEmpty();
+        assertThat(sending.queue).hasSize(1);
+        assertThat(idle.queue).hasSize(1);
+    }
+
+    @Test
+    void register_replaysEventsAfterLastEventId() {
+        feed.onProductChange(ProductChangeEvent.created(phone));
+        feed.onProductChange(ProductChangeEvent.created(shoes));
+
+        ProductChangeFeed.Subscription resumed = subscribe(null, null, feed.eventId(1));
+
+        assertThat(resumed.queue).extracting(ProductChange::eventId).containsExactly(2L);
+        assertThat(resumed.resetRequired).isFalse();
+    }
+
+    @Test
+    void register_requestsReset_whenLastEventIdWasEvicted() {
+        feed.onProductChange(ProductChangeEvent.created(phone));
+        feed.onProductChange(ProductChangeEvent.created(shoes));
+        feed.onProductChange(ProductChangeEvent.deleted(shoes));
+        feed.onProductChange(ProductChangeEvent.deleted(phone));
+
+        ProductChangeFeed.Subscription resumed = subscribe(null, null, feed.eventId(0));
+
+        assertThat(resumed.resetRequired).isTrue();
+    }
+
+    @Test
+    void register_requestsReset_whenLastEventIdCameFromAnotherProcess() {
+        ProductChangeFeed other = new ProductChangeFeed(new ChangeFeedProperties(2, 3, Duration.ofMinutes(1), Duration.ofSeconds(1)), task -> {});
+        feed.onProductChange(ProductChangeEvent.created(phone));
+
+        ProductChangeFeed.Subscription resumed = subscribe(null, null, other.eventId(1));
+
+        assertThat(resumed.resetRequired).isTrue();
+        assertThat(resumed.queue).isEmpty();
+    }
+
+    @Test
+    void register_requestsReset_whenLastEventIdIsAheadOfThisFeed() {
+        feed.onProductChange(ProductChangeEvent.created(phone));
+
+        ProductChangeFeed.Subscription resumed = subscribe(null, null, feed.eventId(5000));
+
+        assertThat(resumed.resetRequired).isTrue();
+        assertThat(resumed.resetEventId).isEqualTo(1L);
+    }
+
+    private ProductChangeFeed.Subscription subscribe(String category, Set<Integer> ids, String lastEventId) {
+        return feed.register(new ProductChangeFeed.Filter(category, ids), lastEventId, new SseEmitter());
+    }
+}
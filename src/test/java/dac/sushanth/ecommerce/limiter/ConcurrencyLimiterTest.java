@@ -0,0 +1,93 @@
+package dac.sushanth.ecommerce.limiter;
+
+import dac.sushanth.ecommerce.config.ConcurrencyLimitProperties;
+import dac.sushanth.ecommerce.deadline.RequestDeadline;
+import dac.sushanth.ecommerce.exception.DeadlineExceededException;
+import dac.sushanth.ecommerce.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ConcurrencyLimitProperties.Budget budget = new ConcurrencyLimitProperties.Budget(2, 1, 4, Duration.ofSeconds(5), 0.5);
+        limiter = new ConcurrencyLimiter(
+            new ConcurrencyLimitProperties(true, Duration.ofSeconds(3), budget, budget, budget, budget),
+            meterRegistry
+        );
+    }
+
+    @Test
+    void execute_rejectsWhenBudgetIsExhausted() {
+        assertThatThrownBy(() -> limiter.execute(Workload.READ, () ->
+                limiter.execute(Workload.READ, () ->
+                        limiter.execute(Workload.READ, () -> "too deep"))))
+            .isInstanceOf(ServiceOverloadedException.class)
+            .satisfies(ex -> assertThat(((ServiceOverloadedException) ex).getRetryAfter()).hasSeconds(3));
+
+        assertThat(meterRegistry.get("ecommerce.limiter.rejections").tag("workload", "read").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void execute_keepsSeparateBudgetsPerWorkload() {
+        String result = limiter.execute(Workload.READ, () ->
+                limiter.execute(Workload.READ, () ->
+                        limiter.execute(Workload.WRITE, () -> "ok")));
+        assertThat(result).isEqualTo("ok");
+    }
+
+    @Test
+    void execute_growsLimitWhileBusyAndFast() {
+        limiter.execute(Workload.SEARCH, () -> limiter.execute(Workload.SEARCH, () -> "ok"));
+        assertThat(limiter.getLimit(Workload.SEARCH)).isEqualTo(3);
+    }
+
+    @Test
+    void execute_backsOffWhenDatabaseFails() {
+        assertThatThrownBy(() -> limiter.execute(Workload.WRITE, () -> {
+            throw new DataAccessResourceFailureException("timed out");
+        })).isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(limiter.getLimit(Workload.WRITE)).isEqualTo(1);
+        assertThat(meterRegistry.get("ecommerce.limiter.limit").tag("workload", "write").gauge().value())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void execute_keepsBulkFailuresOutOfTheWriteLimit() {
+        assertThatThrownBy(() -> limiter.execute(Workload.BULK, () -> {
+            throw new DataAccessResourceFailureException("timed out");
+        })).isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(limiter.getLimit(Workload.BULK)).isEqualTo(1);
+        assertThat(limiter.getLimit(Workload.WRITE)).isEqualTo(2);
+    }
+
+    @Test
+    void execute_leavesLimitAloneWhenClientDeadlineExpires() {
+        RequestDeadline.start(Duration.ofMillis(-1));
+        try {
+            assertThatThrownBy(() -> limiter.execute(Workload.READ, () -> RequestDeadline.remainingMillis()))
+                .isInstanceOf(DeadlineExceededException.class);
+        } finally {
+            RequestDeadline.clear();
+        }
+
+        assertThat(limiter.getLimit(Workload.READ)).isEqualTo(2);
+        assertThat(meterRegistry.get("ecommerce.limiter.in-flight").tag("workload", "read").gauge().value())
+            .isEqualTo(0.0);
+    }
+}
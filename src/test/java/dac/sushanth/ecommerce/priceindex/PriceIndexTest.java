@@ -0,0 +1,82 @@
+package dac.sushanth.ecommerce.priceindex;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceIndexTest {
+
+    private PriceIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = PriceIndex.EMPTY
+            .with(1, 999.99)
+            .with(2, 79.99)
+            .with(3, 499.0)
+            .with(4, 79.99)
+            .with(5, 2.5);
+    }
+
+    @Test
+    void count_includesBothBounds() {
+        assertThat(index.count(79.99, 499.0)).isEqualTo(3);
+        assertThat(index.count(0, 1000)).isEqualTo(5);
+        assertThat(index.count(500, 900)).isZero();
+    }
+
+    @Test
+    void ids_pagesInPriceOrder() {
+        assertThat(index.ids(0, 1000, 0, 3, false)).containsExactly(5, 2, 4);
+        assertThat(index.ids(0, 1000, 3, 3, false)).containsExactly(3, 1);
+        assertThat(index.ids(0, 1000, 0, 2, true)).containsExactly(1, 3);
+        assertThat(index.ids(0, 1000, 5, 2, false)).isEmpty();
+    }
+
+    @Test
+    void ids_breakPriceTiesById() {
+        PriceIndex ties = PriceIndex.EMPTY.with(9, 10.0).with(3, 10.0).with(7, 10.0).with(1, 5.0);
+
+        assertThat(ties.ids(0, 100, 0, 10, false)).containsExactly(1, 3, 7, 9);
+        assertThat(ties.ids(0, 100, 0, 10, true)).containsExactly(9, 7, 3, 1);
+        assertThat(ties.move(1, 5.0, 10.0).ids(0, 100, 0, 10, false)).containsExactly(1, 3, 7, 9);
+        assertThat(ties.move(9, 10.0, 5.0).ids(0, 100, 0, 10, false)).containsExactly(1, 9, 3, 7);
+        assertThat(ties.without(7, 10.0).ids(0, 100, 0, 10, false)).containsExactly(1, 3, 9);
+    }
+
+    @Test
+    void without_removesOnlyMatchingEntry() {
+        PriceIndex updated = index.without(2, 79.99).with(2, 1200.0);
+
+        assertThat(updated.count(79.99, 79.99)).isEqualTo(1);
+        assertThat(updated.ids(1000, 2000, 0, 10, false)).containsExactly(2);
+        assertThat(index.count(79.99, 79.99)).isEqualTo(2);
+    }
+
+    @Test
+    void move_matchesRemoveThenInsert() {
+        double[][] moves = {{999.99, 1.0}, {2.5, 5000.0}, {79.99, 499.0}, {499.0, 79.99}, {79.99, 80.0}};
+        int[] movedIds = {1, 5, 2, 3, 4};
+        for (int i = 0; i < moves.length; i++) {
+            PriceIndex moved = index.move(movedIds[i], moves[i][0], moves[i][1]);
+            PriceIndex expected = index.without(movedIds[i], moves[i][0]).with(movedIds[i], moves[i][1]);
+
+            assertThat(moved.ids(0, 10000, 0, 10, false)).containsExactly(expected.ids(0, 10000, 0, 10, false));
+            assertThat(moved.count(0, 10000)).isEqualTo(5);
+        }
+        assertThat(index.ids(0, 1000, 0, 10, false)).containsExactly(5, 2, 4, 3, 1);
+    }
+
+    @Test
+    void move_addsEntryMissingFromTheIndex() {
+        assertThat(index.move(6, 10.0, 20.0).ids(15, 25, 0, 10, false)).containsExactly(6);
+        assertThat(index.move(3, 499.0, 499.0)).isSameAs(index);
+    }
+
+    @Test
+    void with_isIdempotent() {
+        assertThat(index.with(3, 499.0)).isSameAs(index);
+        assertThat(index.without(3, 500.0)).isSameAs(index);
+    }
+}
@@ -0,0 +1,15 @@
+package dac.sushanth.ecommerce.priceindex;
+
+import dac.sushanth.ecommerce.Product;
+
+public final class PriceIndexes {
+    private PriceIndexes() {}
+
+    public static PriceIndex of(Product... products) {
+        PriceIndex index = PriceIndex.EMPTY;
+        for (Product product : products) {
+            index = index.with(product.productId(), product.productPrice());
+        }
+        return index;
+    }
+}
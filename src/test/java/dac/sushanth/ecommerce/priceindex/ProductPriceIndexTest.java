@@ -0,0 +1,41 @@
+package dac.sushanth.ecommerce.priceindex;
+
+import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.event.ProductChangeEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductPriceIndexTest {
+
+    private final Product pen = new Product(8, "Zebra Pen", "Pen", 5.0, "Stationery", 100, "url8");
+
+    @Test
+    void replay_isIdempotentForWritesTheLoadAlreadySaw() {
+        Product cheap = new Product(7, "Apple iPad", "Tablet", 10.0, "Electronics", 3, "url7");
+        Product pricier = new Product(7, "Apple iPad", "Tablet", 20.0, "Electronics", 3, "url7");
+        PriceIndex loaded = PriceIndexes.of(pen, pricier);
+
+        PriceIndex replayed = ProductPriceIndex.replay(loaded, List.of(
+            ProductChangeEvent.created(cheap),
+            ProductChangeEvent.updated(cheap, pricier)));
+
+        assertThat(replayed.count(0, 100)).isEqualTo(2);
+        assertThat(replayed.ids(0, 100, 0, 10, false)).containsExactly(8, 7);
+    }
+
+    @Test
+    void replay_appliesWritesTheLoadMissed() {
+        Product cheap = new Product(7, "Apple iPad", "Tablet", 10.0, "Electronics", 3, "url7");
+        Product pricier = new Product(7, "Apple iPad", "Tablet", 20.0, "Electronics", 3, "url7");
+
+        PriceIndex replayed = ProductPriceIndex.replay(PriceIndexes.of(pen, cheap), List.of(
+            ProductChangeEvent.updated(cheap, pricier),
+            ProductChangeEvent.deleted(pen)));
+
+        assertThat(replayed.ids(0, 100, 0, 10, false)).containsExactly(7);
+        assertThat(replayed.count(20, 20)).isEqualTo(1);
+    }
+}
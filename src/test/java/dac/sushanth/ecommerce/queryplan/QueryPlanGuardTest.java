@@ -0,0 +1,181 @@
+package dac.sushanth.ecommerce.queryplan;
+
+import com.mongodb.ExplainVerbosity;
+import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.config.ConcurrencyLimitProperties;
+import dac.sushanth.ecommerce.config.QueryGuardProperties;
+import dac.sushanth.ecommerce.deadline.RequestDeadline;
+import dac.sushanth.ecommerce.exception.ServiceOverloadedException;
+import dac.sushanth.ecommerce.exception.UnsupportedQueryException;
+import dac.sushanth.ecommerce.limiter.ConcurrencyLimiter;
+import dac.sushanth.ecommerce.limiter.Workload;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class QueryPlanGuardTest {
+
+    private MongoTemplate mongoTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimiter limiter;
+    private QueryPlanGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class, RETURNS_DEEP_STUBS);
+        when(mongoTemplate.getCollectionName(Product.class)).thenReturn("products");
+        meterRegistry = new SimpleMeterRegistry();
+        ConcurrencyLimitProperties.Budget budget = new ConcurrencyLimitProperties.Budget(1, 1, 4, Duration.ofSeconds(5), 0.5);
+        limiter = new ConcurrencyLimiter(
+            new ConcurrencyLimitProperties(true, Duration.ofSeconds(1), budget, budget, budget, budget),
+            meterRegistry
+        );
+        guard = new QueryPlanGuard(
+            new QueryGuardProperties(true, QueryGuardProperties.Mode.REJECT, 0.0, true, true),
+            mongoTemplate,
+            limiter,
+            meterRegistry
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void check_rejectsSortFieldWithoutIndex() {
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by("productDescription"));
+
+        assertThatThrownBy(() -> guard.check(null, "Electronics", null, null, pageable))
+            .isInstanceOf(UnsupportedQueryException.class)
+            .hasMessageContaining("productDescription");
+        assertThat(meterRegistry.get("ecommerce.query-plan.rejections").tag("shape", "CATEGORY").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void check_rejectsMultiFieldSort() {
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by("productName", "productPrice"));
+
+        assertThatThrownBy(() -> guard.check(null, null, null, null, pageable))
+            .isInstanceOf(UnsupportedQueryException.class);
+    }
+
+    @Test
+    void check_allowsIndexedPlan() {
+        explainReturns(new Document("stage", "LIMIT")
+            .append("inputStage", new Document("stage", "FETCH")
+                .append("inputStage", new Document("stage", "IXSCAN"))));
+
+        assertThatCode(() -> guard.check(null, "Electronics", null, null, PageRequest.of(0, 10, Sort.by("productName"))))
+            .doesNotThrowAnyException();
+    }
+
+    @Test
+    void check_rejectsShapeWithBlockingSort_andRemembersIt() {
+        explainReturns(new Document("stage", "SORT")
+            .append("inputStage", new Document("stage", "COLLSCAN")));
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by("productPrice"));
+
+        assertThatThrownBy(() -> guard.check(null, null, 10.0, 20.0, pageable))
+            .isInstanceOf(UnsupportedQueryException.class);
+        assertThatThrownBy(() -> guard.check(null, null, 30.0, 40.0, pageable))
+            .isInstanceOf(UnsupportedQueryException.class);
+
+        assertThat(meterRegistry.get("ecommerce.query-plan.violations").tag("stage", "COLLSCAN").counter().count())
+            .isEqualTo(1.0);
+        verify(mongoTemplate.getCollection("products"), times(1)).find(any(Document.class));
+    }
+
+    @Test
+    void check_explainsPriceRangeByNameWithItsTieBreakers() {
+        guard.check(null, null, 10.0, 20.0, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "productName")));
+
+        verify(mongoTemplate.getCollection("products").find(any(Document.class))).sort(
+            new Document("productName", -1).append("productPrice", -1).append("_id", -1));
+    }
+
+    @Test
+    void check_explainsUnderTheRequestDeadline() {
+        RequestDeadline.start(Duration.ofSeconds(2));
+
+        guard.check(null, "Electronics", null, null, PageRequest.of(0, 10, Sort.by("productName")));
+
+        verify(mongoTemplate.getCollection("products")).withTimeout(anyLong(), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void check_explainsUnderTheReadLimit() {
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by("productName"));
+
+        assertThatThrownBy(() -> limiter.execute(Workload.READ, () -> {
+            guard.check(null, "Electronics", null, null, pageable);
+            return null;
+        })).isInstanceOf(ServiceOverloadedException.class);
+        verify(mongoTemplate.getCollection("products"), never()).find(any(Document.class));
+
+        guard.check(null, "Electronics", null, null, pageable);
+        verify(mongoTemplate.getCollection("products")).find(any(Document.class));
+    }
+
+    @Test
+    void check_retriesFirstExplainThatCouldNotBeQueued() {
+        AtomicInteger submitted = new AtomicInteger();
+        QueryPlanGuard flagging = new QueryPlanGuard(
+            new QueryGuardProperties(true, QueryGuardProperties.Mode.FLAG, 0.0, true, true),
+            mongoTemplate,
+            limiter,
+            meterRegistry,
+            task -> {
+                submitted.incrementAndGet();
+                throw new RejectedExecutionException("queue full");
+            }
+        );
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by("productName"));
+
+        flagging.check(null, "Electronics", null, null, pageable);
+        flagging.check(null, "Electronics", null, null, pageable);
+
+        assertThat(submitted).hasValue(2);
+    }
+
+    @Test
+    void policy_tiesEverySortableFieldToAnIndex() {
+        for (QueryShape shape : QueryShape.values()) {
+            assertThat(QueryPlanPolicy.sortableFields(shape))
+                .allSatisfy(field -> assertThat(QueryPlanPolicy.requiredIndex(shape, field)).isPresent());
+        }
+        assertThat(QueryPlanPolicy.requiredIndexes()).contains(List.of("productCategory", "productName"));
+    }
+
+    private void explainReturns(Document winningPlan) {
+        when(mongoTemplate.getCollection("products")
+                .find(any(Document.class))
+                .sort(any(Document.class))
+                .skip(anyInt())
+                .limit(anyInt())
+                .explain(ExplainVerbosity.QUERY_PLANNER))
+            .thenReturn(new Document("queryPlanner", new Document("winningPlan", winningPlan)));
+    }
+}
@@ -0,0 +1,42 @@
+package dac.sushanth.ecommerce.repository;
+
+import dac.sushanth.ecommerce.dto.BulkOperation;
+import dac.sushanth.ecommerce.dto.ProductFilter;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductRepositoryCustomImplTest {
+
+    @Test
+    void query_combinesAllCriteria() {
+        Document query = ProductRepositoryCustomImpl.query(new ProductFilter("Electronics", 10.0, 100.0, "phone"))
+                .getQueryObject();
+
+        assertThat(query.get("productCategory")).isEqualTo("Electronics");
+        assertThat(query.get("productPrice", Document.class)).containsEntry("$gte", 10.0).containsEntry("$lte", 100.0);
+        assertThat(query).containsKey("productName");
+    }
+
+    @Test
+    void update_percentChangeIsRoundedAndFlooredAtZero() {
+        List<Document> pipeline = ProductRepositoryCustomImpl.update(new BulkOperation(BulkOperation.Type.PRICE_PERCENT, -10.0))
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        assertThat(pipeline).singleElement().satisfies(stage -> assertThat(stage.toJson())
+                .isEqualTo("{\"$set\": {\"productPrice\": {\"$round\": [{\"$max\": [0, {\"$multiply\": [\"$productPrice\", 0.9]}]}, 2]}}}"));
+    }
+
+    @Test
+    void update_stockSetUsesWholeValue() {
+        List<Document> pipeline = ProductRepositoryCustomImpl.update(new BulkOperation(BulkOperation.Type.STOCK_SET, 25.0))
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        assertThat(pipeline).singleElement().satisfies(stage -> assertThat(stage.toJson())
+                .isEqualTo("{\"$set\": {\"productStock\": 25}}"));
+    }
+}
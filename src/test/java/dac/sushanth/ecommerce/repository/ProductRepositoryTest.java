@@ -1,6 +1,7 @@
 package dac.sushanth.ecommerce.repository;
 
 import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.dto.CategoryStats;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -213,4 +214,16 @@ class ProductRepositoryTest {
             .hasSize(2)
             .containsExactly("Electronics", "Footwear");
     }
-}
\ No newline at end of file
+
+    @Test
+    void aggregateCategoryStatsAtSnapshot_matchesPlainAggregation() {
+        List<CategoryStats> stats = productRepository.aggregateCategoryStatsAtSnapshot("Electronics").stats();
+        assertThat(stats).singleElement()
+            .satisfies(electronics -> {
+                assertThat(electronics.count()).isEqualTo(3);
+                assertThat(electronics.totalStock()).isEqualTo(30);
+            });
+        assertThat(productRepository.aggregateCategoryStatsAtSnapshot(null).stats())
+            .containsExactlyInAnyOrderElementsOf(productRepository.aggregateCategoryStats());
+    }
+}
@@ -0,0 +1,139 @@
+package dac.sushanth.ecommerce.routing;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.ClientSession;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandSucceededEvent;
+import dac.sushanth.ecommerce.config.ReadRoutingProperties;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReadRouterTest {
+
+    private MongoDatabaseFactory databaseFactory;
+    private ClientSession session;
+    private CausalWriteTracker writeTracker;
+
+    @BeforeEach
+    void setUp() {
+        databaseFactory = mock(MongoDatabaseFactory.class);
+        session = mock(ClientSession.class);
+        when(databaseFactory.getSession(any(ClientSessionOptions.class))).thenReturn(session);
+        writeTracker = new CausalWriteTracker();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadRouting.clearReadAfter();
+        writeTracker.clear();
+    }
+
+    @Test
+    void secondary_keepsPrimary_whenRoutingIsDisabled() {
+        ReadRouter router = router(false, true);
+
+        boolean routed = router.secondary(ReadRouting::isSecondary);
+
+        assertThat(routed).isFalse();
+        verifyNoInteractions(databaseFactory);
+    }
+
+    @Test
+    void secondary_routesWithoutSession_whenClientSentNoToken() {
+        writeTracker.advance(new BsonTimestamp(100, 1));
+        ReadRouter router = router(true, true);
+
+        boolean routed = router.secondary(ReadRouting::isSecondary);
+
+        assertThat(routed).isTrue();
+        assertThat(ReadRouting.isSecondary()).isFalse();
+        verifyNoInteractions(databaseFactory);
+    }
+
+    @Test
+    void secondary_readsAfterClientToken_throughCausalSession() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Operation-Time", "100.1");
+        interceptor(true).preHandle(request, new MockHttpServletResponse(), new Object());
+        ReadRouter router = router(true, true);
+
+        ClientSession used = router.secondary(ReadRouting::session);
+
+        assertThat(used).isSameAs(session);
+        assertThat(ReadRouting.session()).isNull();
+        verify(session).advanceOperationTime(new BsonTimestamp(100, 1));
+        verify(session).close();
+    }
+
+    @Test
+    void secondary_skipsSession_whenReadYourWritesIsOff() {
+        ReadRouting.setReadAfter(new BsonTimestamp(100, 1));
+        ReadRouter router = router(true, false);
+
+        assertThat(router.secondary(ReadRouting::session)).isNull();
+        verifyNoInteractions(databaseFactory);
+    }
+
+    @Test
+    void interceptor_ignoresMalformedTokens_andClearsAfterTheRequest() throws Exception {
+        CausalConsistencyInterceptor interceptor = interceptor(true);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Operation-Time", "yesterday");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+        assertThat(ReadRouting.readAfter()).isNull();
+
+        request = new MockHttpServletRequest();
+        request.addHeader("X-Operation-Time", "4294967295.7");
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+        assertThat(OperationTimeToken.format(ReadRouting.readAfter())).isEqualTo("4294967295.7");
+
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), new Object(), null);
+        assertThat(ReadRouting.readAfter()).isNull();
+    }
+
+    @Test
+    void writeTracker_keepsLatestWriteOfTheCurrentThreadOnly() throws Exception {
+        writeTracker.commandSucceeded(succeeded("update", new BsonTimestamp(200, 1)));
+        writeTracker.commandSucceeded(succeeded("insert", new BsonTimestamp(100, 5)));
+        writeTracker.commandSucceeded(succeeded("find", new BsonTimestamp(300, 1)));
+
+        assertThat(writeTracker.getLastOperationTime()).isEqualTo(new BsonTimestamp(200, 1));
+        assertThat(CompletableFuture.supplyAsync(writeTracker::getLastOperationTime).get()).isNull();
+    }
+
+    private CausalConsistencyInterceptor interceptor(boolean readYourWrites) {
+        return new CausalConsistencyInterceptor(properties(true, readYourWrites), writeTracker);
+    }
+
+    private ReadRouter router(boolean enabled, boolean readYourWrites) {
+        return new ReadRouter(properties(enabled, readYourWrites), databaseFactory);
+    }
+
+    private static ReadRoutingProperties properties(boolean enabled, boolean readYourWrites) {
+        return new ReadRoutingProperties(enabled, "secondaryPreferred", Duration.ofSeconds(90), readYourWrites,
+            "X-Operation-Time");
+    }
+
+    private static CommandSucceededEvent succeeded(String command, BsonTimestamp operationTime) {
+        return new CommandSucceededEvent(null, 1, 1,
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress())),
+            "ecommerce", command, new BsonDocument("operationTime", operationTime), 0);
+    }
+}
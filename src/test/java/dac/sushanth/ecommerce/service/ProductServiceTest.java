@@ -1,19 +1,41 @@
 package dac.sushanth.ecommerce.service;
 
 import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.config.ConcurrencyLimitProperties;
+import dac.sushanth.ecommerce.config.ReadRoutingProperties;
+import dac.sushanth.ecommerce.config.SnapshotProperties;
+import dac.sushanth.ecommerce.dto.BulkOperation;
+import dac.sushanth.ecommerce.dto.BulkUpdateRequest;
+import dac.sushanth.ecommerce.dto.BulkUpdateResult;
+import dac.sushanth.ecommerce.dto.ProductFilter;
 import dac.sushanth.ecommerce.dto.ProductRequest;
+import dac.sushanth.ecommerce.event.ProductChangeEvent;
+import dac.sushanth.ecommerce.event.ProductsBulkUpdatedEvent;
 import dac.sushanth.ecommerce.exception.ResourceNotFoundException;
+import dac.sushanth.ecommerce.exception.UnsupportedQueryException;
+import dac.sushanth.ecommerce.limiter.ConcurrencyLimiter;
+import dac.sushanth.ecommerce.priceindex.PriceIndexes;
+import dac.sushanth.ecommerce.priceindex.ProductPriceIndex;
+import dac.sushanth.ecommerce.queryplan.QueryPlanGuard;
+import dac.sushanth.ecommerce.routing.CausalWriteTracker;
+import dac.sushanth.ecommerce.routing.ReadRouter;
 import dac.sushanth.ecommerce.repository.ProductRepository;
+import dac.sushanth.ecommerce.snapshot.CatalogSnapshots;
+import dac.sushanth.ecommerce.stats.CategoryStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,7 +49,18 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
-    @InjectMocks
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private QueryPlanGuard queryPlanGuard;
+
+    @Mock
+    private CategoryStatistics categoryStatistics;
+
+    @Mock
+    private ProductPriceIndex priceIndex;
+
     private ProductService productService;
 
     private Product product;
@@ -37,6 +70,16 @@ class ProductServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ConcurrencyLimitProperties.Budget budget = new ConcurrencyLimitProperties.Budget(20, 4, 200, Duration.ofMillis(250), 0.9);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(
+            new ConcurrencyLimitProperties(true, Duration.ofSeconds(1), budget, budget, budget, budget),
+            new SimpleMeterRegistry()
+        );
+        ReadRouter readRouter = new ReadRouter(new ReadRoutingProperties(false, "secondaryPreferred", Duration.ofSeconds(90), true, "X-Operation-Time"), null);
+        CatalogSnapshots snapshots = new CatalogSnapshots(new SnapshotProperties(SnapshotProperties.Mode.OFF,
+            Path.of("catalog.snapshot"), Duration.ofMinutes(5)), null, eventPublisher, new SimpleMeterRegistry());
+        productService = new ProductService(productRepository, eventPublisher, limiter, queryPlanGuard, readRouter, categoryStatistics, snapshots, priceIndex,
+            new CausalWriteTracker());
         product = new Product(1, "Apple iPhone", "Smartphone", 999.99, "Electronics", 5, "url1");
         productRequest = new ProductRequest(
             "Apple iPhone",
@@ -57,6 +100,31 @@ class ProductServiceTest {
         assertThat(found.get().productName()).isEqualTo("Apple iPhone");
     }
 
+    @Test
+    void bulkUpdate_dryRun_countsWithoutUpdating() {
+        ProductFilter filter = new ProductFilter("Electronics", null, null, null);
+        when(productRepository.countMatching(filter)).thenReturn(42L);
+
+        BulkUpdateResult result = productService.bulkUpdate(
+            new BulkUpdateRequest(filter, new BulkOperation(BulkOperation.Type.PRICE_PERCENT, -10.0), true));
+
+        assertThat(result).isEqualTo(new BulkUpdateResult(42, 0, true));
+        verify(productRepository, never()).updateMatching(any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void bulkUpdate_appliesOperationAndPublishesEvent() {
+        ProductFilter filter = new ProductFilter("Electronics", null, null, null);
+        BulkOperation operation = new BulkOperation(BulkOperation.Type.PRICE_PERCENT, -10.0);
+        when(productRepository.updateMatching(filter, operation)).thenReturn(new BulkUpdateResult(42, 40, false));
+
+        BulkUpdateResult result = productService.bulkUpdate(new BulkUpdateRequest(filter, operation, false));
+
+        assertThat(result.modified()).isEqualTo(40);
+        verify(eventPublisher).publishEvent(new ProductsBulkUpdatedEvent(filter, operation, 40));
+    }
+
     @Test
     void getById_returnsEmpty_whenProductDoesNotExist() {
         when(productRepository.findById(999)).thenReturn(Optional.empty());
@@ -78,6 +146,7 @@ class ProductServiceTest {
         Product saved = productService.create(productRequest);
         assertThat(saved.productName()).isEqualTo(productRequest.productName());
         assertThat(saved.productPrice()).isEqualTo(productRequest.productPrice());
+        verify(eventPublisher).publishEvent(ProductChangeEvent.created(product));
     }
 
     @Test
@@ -88,6 +157,7 @@ class ProductServiceTest {
         Optional<Product> updated = productService.update(1, productRequest);
         assertThat(updated).isPresent();
         assertThat(updated.get().productName()).isEqualTo(productRequest.productName());
+        verify(eventPublisher).publishEvent(ProductChangeEvent.updated(product, product));
     }
 
     @Test
@@ -95,18 +165,20 @@ class ProductServiceTest {
         when(productRepository.findById(999)).thenReturn(Optional.empty());
         Optional<Product> updated = productService.update(999, productRequest);
         assertThat(updated).isEmpty();
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void delete_deletesProduct_whenProductExists() {
-        when(productRepository.existsById(1)).thenReturn(true);
+        when(productRepository.findById(1)).thenReturn(Optional.of(product));
         productService.delete(1);
         verify(productRepository).deleteById(1);
+        verify(eventPublisher).publishEvent(ProductChangeEvent.deleted(product));
     }
 
     @Test
     void delete_throwsException_whenProductDoesNotExist() {
-        when(productRepository.existsById(999)).thenReturn(false);
+        when(productRepository.findById(999)).thenReturn(Optional.empty());
         assertThatThrownBy(() -> productService.delete(999))
             .isInstanceOf(ResourceNotFoundException.class)
             .hasMessageContaining("Product not found with id : '999'");
@@ -145,6 +217,59 @@ class ProductServiceTest {
         assertThat(results.getContent().get(0).productPrice()).isBetween(900.0, 1000.0);
     }
 
+    @Test
+    void search_byPriceRange_usesPriceIndexForCountAndPageIds() {
+        Product tablet = new Product(2, "Apple iPad", "Tablet", 499.0, "Electronics", 3, "url2");
+        when(priceIndex.current()).thenReturn(Optional.of(PriceIndexes.of(tablet, product)));
+        when(productRepository.findAllById(List.of(2, 1))).thenReturn(List.of(product, tablet));
+
+        Page<Product> results = productService.search(null, null, 0.0, 1000.0, PageRequest.of(0, 10, Sort.by("productPrice")));
+
+        assertThat(results.getTotalElements()).isEqualTo(2);
+        assertThat(results.getContent()).containsExactly(tablet, product);
+        verify(productRepository, never()).findByProductPriceBetween(anyDouble(), anyDouble(), any(Pageable.class));
+    }
+
+    @Test
+    void search_byPriceRange_recordsIdsMissingFromDatabase() {
+        Product tablet = new Product(2, "Apple iPad", "Tablet", 499.0, "Electronics", 3, "url2");
+        when(priceIndex.current()).thenReturn(Optional.of(PriceIndexes.of(tablet, product)));
+        when(productRepository.findAllById(List.of(2, 1))).thenReturn(List.of(product));
+
+        Page<Product> results = productService.search(null, null, 0.0, 1000.0, PageRequest.of(0, 10, Sort.by("productPrice")));
+
+        assertThat(results.getContent()).containsExactly(product);
+        verify(priceIndex).recordMissing(1);
+    }
+
+    @Test
+    void search_byPriceRange_dropsIdsRepricedOutOfRange() {
+        Product tablet = new Product(2, "Apple iPad", "Tablet", 499.0, "Electronics", 3, "url2");
+        Product repricedTablet = new Product(2, "Apple iPad", "Tablet", 1499.0, "Electronics", 3, "url2");
+        when(priceIndex.current()).thenReturn(Optional.of(PriceIndexes.of(tablet, product)));
+        when(productRepository.findAllById(List.of(2, 1))).thenReturn(List.of(product, repricedTablet));
+
+        Page<Product> results = productService.search(null, null, 0.0, 1000.0, PageRequest.of(0, 10, Sort.by("productPrice")));
+
+        assertThat(results.getContent()).containsExactly(product);
+        verify(priceIndex).recordMissing(1);
+    }
+
+    @Test
+    void search_byPriceRange_sortedByName_skipsCountQuery() {
+        when(priceIndex.current()).thenReturn(Optional.of(PriceIndexes.of(product)));
+        Pageable byName = PageRequest.of(0, 10, Sort.by("productName"));
+        when(productRepository.findPriceRangeContent(900.0, 1000.0,
+                PageRequest.of(0, 10, Sort.by("productName", "productPrice", "productId"))))
+            .thenReturn(List.of(product));
+
+        Page<Product> results = productService.search(null, null, 900.0, 1000.0, byName);
+
+        assertThat(results.getTotalElements()).isEqualTo(1);
+        assertThat(results.getContent()).containsExactly(product);
+        verify(productRepository, never()).findByProductPriceBetween(anyDouble(), anyDouble(), any(Pageable.class));
+    }
+
     @Test
     void search_withNoFilters_returnsAllProducts() {
         Page<Product> expectedPage = new PageImpl<>(List.of(product));
@@ -162,4 +287,14 @@ class ProductServiceTest {
             .hasSize(2)
             .containsExactlyInAnyOrder("Electronics", "Footwear");
     }
+
+    @Test
+    void search_checksQueryPlanBeforeQuerying() {
+        doThrow(new UnsupportedQueryException("Sorting by 'productDescription' is not supported"))
+            .when(queryPlanGuard).check(isNull(), eq("Electronics"), isNull(), isNull(), any(Pageable.class));
+
+        assertThatThrownBy(() -> productService.search(null, "Electronics", null, null, pageable))
+            .isInstanceOf(UnsupportedQueryException.class);
+        verify(productRepository, never()).findByProductCategory(any(), any(Pageable.class));
+    }
 }
\ No newline at end of file
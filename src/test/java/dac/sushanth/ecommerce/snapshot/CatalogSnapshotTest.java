@@ -0,0 +1,83 @@
+package dac.sushanth.ecommerce.snapshot;
+
+import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.dto.CategoryStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private CatalogSnapshot snapshot;
+    private Product phone;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        phone = new Product(7, "Apple iPhone", "Smartphone", 999.99, "Electronics", 5, "url1");
+        List<Product> products = List.of(
+            new Product(3, "Nike Shoes", "Running shoes", 79.99, "Footwear", 20, "url2"),
+            phone,
+            new Product(5, "Zebra Pen", null, 2.5, "Stationery", 100, null),
+            new Product(1, "Apple iPad", "Tablet", 499.0, "Electronics", 3, "url3")
+        );
+        Path path = directory.resolve("catalog.snapshot");
+        CatalogSnapshot.write(path, products, Instant.ofEpochSecond(1_700_000_000));
+        snapshot = CatalogSnapshot.open(path);
+    }
+
+    @Test
+    void findById_decodesAllFields() {
+        assertThat(snapshot.size()).isEqualTo(4);
+        assertThat(snapshot.createdAt()).isEqualTo(Instant.ofEpochSecond(1_700_000_000));
+        assertThat(snapshot.findById(7)).contains(phone);
+        assertThat(snapshot.findById(5)).hasValueSatisfying(pen -> assertThat(pen.productDescription()).isEmpty());
+        assertThat(snapshot.findById(4)).isEmpty();
+    }
+
+    @Test
+    void categories_areSortedAndUnique() {
+        assertThat(snapshot.categories()).containsExactly("Electronics", "Footwear", "Stationery");
+    }
+
+    @Test
+    void findByPriceBetween_pagesInRequestedOrder() {
+        Page<Product> byPrice = snapshot.findByPriceBetween(50, 999.99, PageRequest.of(0, 2, Sort.by("productPrice")));
+        Page<Product> byName = snapshot.findByPriceBetween(50, 999.99, PageRequest.of(1, 2, Sort.by("productName")));
+
+        assertThat(byPrice.getTotalElements()).isEqualTo(3);
+        assertThat(byPrice.getContent()).extracting(Product::productId).containsExactly(3, 1);
+        assertThat(byName.getContent()).extracting(Product::productId).containsExactly(3);
+    }
+
+    @Test
+    void findByPriceBetween_sortsByIdAndNameInEitherDirection() {
+        PageRequest nameDescending = PageRequest.of(0, 4, Sort.by(Sort.Direction.DESC, "productName"));
+        PageRequest idDescending = PageRequest.of(0, 4, Sort.by(Sort.Direction.DESC, "productId"));
+
+        assertThat(snapshot.findByPriceBetween(0, 1000, nameDescending).getContent())
+            .extracting(Product::productName)
+            .containsExactly("Zebra Pen", "Nike Shoes", "Apple iPhone", "Apple iPad");
+        assertThat(snapshot.findByPriceBetween(0, 1000, idDescending).getContent())
+            .extracting(Product::productId)
+            .containsExactly(7, 5, 3, 1);
+    }
+
+    @Test
+    void categoryStats_aggregatesColumns() {
+        assertThat(snapshot.categoryStats()).first()
+            .isEqualTo(new CategoryStats("Electronics", 2, 1498.99, 749.495, 499.0, 999.99, 8));
+    }
+}
@@ -0,0 +1,102 @@
+package dac.sushanth.ecommerce.snapshot;
+
+import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.config.SnapshotProperties;
+import dac.sushanth.ecommerce.event.CatalogInvalidatedEvent;
+import dac.sushanth.ecommerce.exception.ReadOnlyReplicaException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSnapshotsTest {
+
+    @TempDir
+    Path directory;
+
+    private Path path;
+    private Product phone;
+    private final List<Object> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        path = directory.resolve("catalog.snapshot");
+        phone = new Product(1, "Apple iPhone", "Smartphone", 999.99, "Electronics", 5, "url1");
+        CatalogSnapshot.write(path, List.of(phone), Instant.now());
+    }
+
+    @Test
+    void read_fallsBackToSnapshot_whenDatabaseIsUnreachable() {
+        CatalogSnapshots snapshots = snapshots(SnapshotProperties.Mode.STANDBY);
+
+        Optional<Product> found = snapshots.read(() -> {
+            throw new DataAccessResourceFailureException("Timed out selecting a server");
+        }, snapshot -> snapshot.findById(1));
+
+        assertThat(found).contains(phone);
+        assertThat(SnapshotFallback.consume()).isTrue();
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void read_usesDatabase_whileItIsAvailable() {
+        CatalogSnapshots snapshots = snapshots(SnapshotProperties.Mode.STANDBY);
+
+        assertThat(snapshots.read(() -> List.of("Live"), CatalogSnapshot::categories)).containsExactly("Live");
+        assertThat(SnapshotFallback.consume()).isFalse();
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void edge_servesSnapshotAndRejectsWrites() {
+        CatalogSnapshots snapshots = snapshots(SnapshotProperties.Mode.EDGE);
+
+        assertThat(snapshots.read(() -> List.of("Live"), CatalogSnapshot::categories)).containsExactly("Electronics");
+        assertThatThrownBy(snapshots::requireWritable).isInstanceOf(ReadOnlyReplicaException.class);
+    }
+
+    @Test
+    void edge_remapsChangedSnapshot_andInvalidatesCachedResponses() throws IOException {
+        CatalogSnapshots snapshots = snapshots(SnapshotProperties.Mode.EDGE);
+        snapshots.refresh();
+        assertThat(events).isEmpty();
+
+        Product shoes = new Product(2, "Nike Shoes", "Running shoes", 80.0, "Footwear", 20, "url2");
+        CatalogSnapshot.write(path, List.of(phone, shoes), Instant.now());
+        Files.setLastModifiedTime(path, FileTime.from(Instant.now().plusSeconds(60)));
+        snapshots.refresh();
+
+        assertThat(snapshots.read(() -> List.of("Live"), CatalogSnapshot::categories))
+            .containsExactly("Electronics", "Footwear");
+        assertThat(events).singleElement().isInstanceOf(CatalogInvalidatedEvent.class);
+    }
+
+    @Test
+    void edge_failsFast_withoutSnapshot() {
+        CatalogSnapshots snapshots = new CatalogSnapshots(new SnapshotProperties(SnapshotProperties.Mode.EDGE,
+            directory.resolve("missing.snapshot"), Duration.ofMinutes(5)), null, events::add, new SimpleMeterRegistry());
+
+        assertThatThrownBy(snapshots::load).isInstanceOf(IllegalStateException.class);
+    }
+
+    private CatalogSnapshots snapshots(SnapshotProperties.Mode mode) {
+        CatalogSnapshots snapshots = new CatalogSnapshots(
+            new SnapshotProperties(mode, path, Duration.ofMinutes(5)), null, events::add, new SimpleMeterRegistry());
+        snapshots.load();
+        return snapshots;
+    }
+}
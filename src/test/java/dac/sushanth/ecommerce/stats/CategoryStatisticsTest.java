@@ -0,0 +1,151 @@
+package dac.sushanth.ecommerce.stats;
+
+import dac.sushanth.ecommerce.Product;
+import dac.sushanth.ecommerce.config.CategoryStatsProperties;
+import dac.sushanth.ecommerce.dto.BulkOperation;
+import dac.sushanth.ecommerce.dto.CategoryStats;
+import dac.sushanth.ecommerce.dto.CategoryStatsAggregation;
+import dac.sushanth.ecommerce.dto.ProductFilter;
+import dac.sushanth.ecommerce.event.ProductChangeEvent;
+import dac.sushanth.ecommerce.event.ProductsBulkUpdatedEvent;
+import dac.sushanth.ecommerce.repository.ProductRepository;
+import org.bson.BsonTimestamp;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class CategoryStatisticsTest {
+
+    private ProductRepository repository;
+    private CategoryStatistics statistics;
+    private Product phone;
+    private Product tablet;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ProductRepository.class);
+        statistics = new CategoryStatistics(new CategoryStatsProperties(true, Duration.ofMinutes(10)), repository);
+        phone = new Product(1, "Apple iPhone", "Smartphone", 1000.0, "Electronics", 5, "url1");
+        tablet = new Product(2, "Apple iPad", "Tablet", 500.0, "Electronics", 3, "url2");
+        when(repository.aggregateCategoryStatsAtSnapshot(null)).thenReturn(aggregation(null,
+            new CategoryStats("Electronics", 2, 1500.0, 750.0, 500.0, 1000.0, 8)));
+        statistics.reconcile();
+    }
+
+    @Test
+    void snapshot_appliesDeltasWithoutQuerying() {
+        Product shoes = new Product(3, "Nike Shoes", "Running shoes", 80.0, "Footwear", 20, "url3");
+        Product watch = new Product(4, "Apple Watch", "Smartwatch", 600.0, "Electronics", 2, "url4");
+        Product pricierWatch = new Product(4, "Apple Watch", "Smartwatch", 700.0, "Electronics", 2, "url4");
+
+        statistics.onProductChange(ProductChangeEvent.created(shoes));
+        statistics.onProductChange(ProductChangeEvent.created(watch));
+        statistics.onProductChange(ProductChangeEvent.updated(watch, pricierWatch));
+        statistics.onProductChange(ProductChangeEvent.deleted(pricierWatch));
+
+        assertThat(statistics.snapshot()).containsExactly(
+            new CategoryStats("Electronics", 2, 1500.0, 750.0, 500.0, 1000.0, 8),
+            new CategoryStats("Footwear", 1, 80.0, 80.0, 80.0, 80.0, 20));
+        verify(repository, times(1)).aggregateCategoryStatsAtSnapshot(null);
+        verify(repository, never()).aggregateCategoryStatsAtSnapshot("Electronics");
+    }
+
+    @Test
+    void snapshot_reaggregatesCategory_whenExtremePriceRemoved() {
+        Product cheaperPhone = new Product(1, "Apple iPhone", "Smartphone", 900.0, "Electronics", 5, "url1");
+        when(repository.aggregateCategoryStatsAtSnapshot("Electronics")).thenReturn(aggregation(null,
+            new CategoryStats("Electronics", 2, 1400.0, 700.0, 500.0, 900.0, 8)));
+
+        statistics.onProductChange(ProductChangeEvent.updated(phone, cheaperPhone));
+
+        assertThat(statistics.snapshot()).singleElement()
+            .satisfies(stats -> assertThat(stats.maxPrice()).isEqualTo(900.0));
+        verify(repository).aggregateCategoryStatsAtSnapshot("Electronics");
+    }
+
+    @Test
+    void snapshot_dropsCategory_whenLastProductDeleted() {
+        statistics.onProductChange(ProductChangeEvent.deleted(phone));
+        statistics.onProductChange(ProductChangeEvent.deleted(tablet));
+
+        assertThat(statistics.snapshot()).isEmpty();
+    }
+
+    @Test
+    void snapshot_reconciles_afterUnscopedBulkUpdate() {
+        statistics.onBulkUpdate(new ProductsBulkUpdatedEvent(new ProductFilter(null, 0.0, 100.0, null),
+            new BulkOperation(BulkOperation.Type.PRICE_PERCENT, 10.0), 4));
+
+        statistics.snapshot();
+
+        verify(repository, times(2)).aggregateCategoryStatsAtSnapshot(null);
+    }
+
+    @Test
+    void refresh_replaysWriteThatArrivedDuringAggregation() {
+        Product cheaperPhone = new Product(1, "Apple iPhone", "Smartphone", 900.0, "Electronics", 5, "url1");
+        Product watch = new Product(4, "Apple Watch", "Smartwatch", 600.0, "Electronics", 2, "url4");
+        Product shoes = new Product(3, "Nike Shoes", "Running shoes", 80.0, "Footwear", 20, "url3");
+        when(repository.aggregateCategoryStatsAtSnapshot("Electronics")).thenAnswer(invocation -> {
+            statistics.onProductChange(ProductChangeEvent.created(watch));
+            statistics.onProductChange(ProductChangeEvent.created(shoes));
+            return aggregation(null, new CategoryStats("Electronics", 2, 1400.0, 700.0, 500.0, 900.0, 8));
+        });
+        statistics.onProductChange(ProductChangeEvent.updated(phone, cheaperPhone));
+
+        assertThat(statistics.snapshot()).containsExactly(
+            new CategoryStats("Electronics", 3, 2000.0, 2000.0 / 3, 500.0, 900.0, 10),
+            new CategoryStats("Footwear", 1, 80.0, 80.0, 80.0, 80.0, 20));
+        statistics.snapshot();
+        verify(repository, times(1)).aggregateCategoryStatsAtSnapshot("Electronics");
+    }
+
+    @Test
+    void reconcile_replaysWritesAndKeepsBulkUpdatesThatArrivedDuringAggregation() {
+        Product shoes = new Product(3, "Nike Shoes", "Running shoes", 80.0, "Footwear", 20, "url3");
+        when(repository.aggregateCategoryStatsAtSnapshot(null)).thenAnswer(invocation -> {
+            statistics.onProductChange(ProductChangeEvent.created(shoes));
+            statistics.onBulkUpdate(new ProductsBulkUpdatedEvent(new ProductFilter("Books", null, null, null),
+                new BulkOperation(BulkOperation.Type.STOCK_SET, 0.0), 7));
+            return aggregation(null, new CategoryStats("Electronics", 2, 1500.0, 750.0, 500.0, 1000.0, 8));
+        });
+        when(repository.aggregateCategoryStatsAtSnapshot("Books")).thenReturn(aggregation(null,
+            new CategoryStats("Books", 7, 70.0, 10.0, 10.0, 10.0, 0)));
+
+        statistics.reconcile();
+
+        assertThat(statistics.snapshot()).containsExactly(
+            new CategoryStats("Books", 7, 70.0, 10.0, 10.0, 10.0, 0),
+            new CategoryStats("Electronics", 2, 1500.0, 750.0, 500.0, 1000.0, 8),
+            new CategoryStats("Footwear", 1, 80.0, 80.0, 80.0, 80.0, 20));
+    }
+
+    @Test
+    void reconcile_skipsWritesTheSnapshotAlreadyContains() {
+        Product shoes = new Product(3, "Nike Shoes", "Running shoes", 80.0, "Footwear", 20, "url3");
+        Product watch = new Product(4, "Apple Watch", "Smartwatch", 600.0, "Electronics", 2, "url4");
+        when(repository.aggregateCategoryStatsAtSnapshot(null)).thenAnswer(invocation -> {
+            statistics.onProductChange(ProductChangeEvent.created(shoes).at(new BsonTimestamp(100, 1)));
+            statistics.onProductChange(ProductChangeEvent.created(watch).at(new BsonTimestamp(100, 3)));
+            // Read at (100, 2): the shoes are already counted, the watch is not
+            return aggregation(new BsonTimestamp(100, 2),
+                new CategoryStats("Electronics", 2, 1500.0, 750.0, 500.0, 1000.0, 8),
+                new CategoryStats("Footwear", 1, 80.0, 80.0, 80.0, 80.0, 20));
+        });
+
+        statistics.reconcile();
+
+        assertThat(statistics.snapshot()).containsExactly(
+            new CategoryStats("Electronics", 3, 2100.0, 700.0, 500.0, 1000.0, 10),
+            new CategoryStats("Footwear", 1, 80.0, 80.0, 80.0, 80.0, 20));
+    }
+
+    private static CategoryStatsAggregation aggregation(BsonTimestamp atClusterTime, CategoryStats... stats) {
+        return new CategoryStatsAggregation(List.of(stats), atClusterTime);
+    }
+}
@@ -0,0 +1,32 @@
+package dac.sushanth.ecommerce.warmup;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SteadyStateDetectorTest {
+
+    @Test
+    void record_waitsForMinimumRounds() {
+        SteadyStateDetector detector = new SteadyStateDetector(5, 3, 0.2);
+
+        assertThat(detector.record(100)).isFalse();
+        assertThat(detector.record(100)).isFalse();
+        assertThat(detector.record(100)).isFalse();
+        assertThat(detector.record(100)).isFalse();
+        assertThat(detector.record(100)).isTrue();
+        assertThat(detector.rounds()).isEqualTo(5);
+    }
+
+    @Test
+    void record_staysUnstableWhileLatencyIsFalling() {
+        SteadyStateDetector detector = new SteadyStateDetector(1, 3, 0.2);
+
+        assertThat(detector.record(1000)).isFalse();
+        assertThat(detector.record(600)).isFalse();
+        assertThat(detector.record(300)).isFalse();
+        assertThat(detector.record(110)).isFalse();
+        assertThat(detector.record(100)).isFalse();
+        assertThat(detector.record(105)).isTrue();
+    }
+}